@@ -1,55 +1,317 @@
 package com.example.jadxmcpserver;
 
+import com.example.jadxmcpserver.core.ClassExporter;
+import com.example.jadxmcpserver.core.Deadline;
 import com.example.jadxmcpserver.core.JadxAnalyzerCore;
+import com.example.jadxmcpserver.core.LoadJob;
+import com.example.jadxmcpserver.core.LoadProgress;
+import com.example.jadxmcpserver.core.NameIndex;
+import com.example.jadxmcpserver.core.SessionRegistry;
+import com.example.jadxmcpserver.model.AppManifest;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
 
 /**
  * JADX APK Analyzer API - Clean API wrapper for MCP Server
- * This class provides a simple API interface that delegates to JadxAnalyzerCore
+ * This class provides a simple API interface that delegates to JadxAnalyzerCore.
+ * Several APKs can be loaded at once; each is a session in a shared SessionRegistry.
+ * An instance is bound to one session (see session(String)); the default instance
+ * works on the most recently loaded APK.
  */
 public class JadxApkAnalyzerAPI {
     
-    private JadxAnalyzerCore core;
+    // How long cancelLoad waits for the loader to stop before reporting its state
+    private static final long CANCEL_WAIT_MS = 2000;
+    
+    private final SessionRegistry sessions;
+    private final String sessionId;
+    
+    /**
+     * Raw bytes of a resource file streamed from the APK. Holds its session open (like a
+     * request) until closed, so the stream stays valid while a response is being written.
+     */
+    public static class ResourceStream implements AutoCloseable {
+        private final SessionRegistry.Lease lease;
+        private final InputStream in;
+        private final long size;
+        
+        private ResourceStream(SessionRegistry.Lease lease, InputStream in, long size) {
+            this.lease = lease;
+            this.in = in;
+            this.size = size;
+        }
+        
+        public InputStream getInputStream() {
+            return in;
+        }
+        
+        /**
+         * Uncompressed size in bytes, or -1 if unknown
+         */
+        public long getSize() {
+            return size;
+        }
+        
+        @Override
+        public void close() {
+            try {
+                in.close();
+            } catch (IOException e) {
+                // Nothing left to release but the session
+            } finally {
+                lease.close();
+            }
+        }
+    }
+    
+    /**
+     * A pending export of decompiled classes. Holds its session open (like a request) until
+     * closed, so the classes stay loaded while a long response is being written.
+     */
+    public static class ClassExport implements AutoCloseable {
+        private final SessionRegistry.Lease lease;
+        private final String packagePrefix;
+        private final Set<ClassExporter.Part> parts;
+        
+        private ClassExport(SessionRegistry.Lease lease, String packagePrefix, Set<ClassExporter.Part> parts) {
+            this.lease = lease;
+            this.packagePrefix = packagePrefix;
+            this.parts = parts;
+        }
+        
+        /**
+         * Decompile and write every class in order; returns the number of classes written
+         */
+        public int writeTo(ClassExporter.Sink sink) throws IOException {
+            JadxAnalyzerCore core = lease.core();
+            return core.exportClasses(core.getClassNames(packagePrefix), parts, sink);
+        }
+        
+        @Override
+        public void close() {
+            lease.close();
+        }
+    }
+    
+    public JadxApkAnalyzerAPI() {
+        this(new SessionRegistry(), null);
+    }
+    
+    private JadxApkAnalyzerAPI(SessionRegistry sessions, String sessionId) {
+        this.sessions = sessions;
+        this.sessionId = sessionId;
+    }
     
     /**
-     * Load and analyze an APK file
+     * Get a view of this API bound to a session; null or empty means the current session
+     */
+    public JadxApkAnalyzerAPI session(String sessionId) {
+        if (sessionId == null || sessionId.isEmpty()) {
+            return this.sessionId == null ? this : new JadxApkAnalyzerAPI(sessions, null);
+        }
+        return new JadxApkAnalyzerAPI(sessions, sessionId);
+    }
+    
+    /**
+     * Load and analyze an APK file as a new session (or reuse the session of an identical APK).
+     * The loaded APK becomes the current session.
      */
     public Map<String, Object> loadApk(String apkPath) throws Exception {
+        return loadApk(apkPath, false);
+    }
+    
+    /**
+     * Load an APK; with reload, rebuild its analysis even if an identical APK is loaded.
+     * Sessions of the same content or file keep serving until the new analysis is
+     * complete, are then swapped out, and close once their running requests finish.
+     */
+    public Map<String, Object> loadApk(String apkPath, boolean reload) throws Exception {
         try {
-            // Close previous instance if exists
-            close();
-            
-            core = new JadxAnalyzerCore(apkPath);
-            
-            if (!core.loadApk()) {
-                throw new Exception("Failed to load APK: " + apkPath);
+            return open(apkPath, reload, new LoadProgress());
+        } catch (RuntimeException e) {
+            throw new Exception(e.getMessage(), e);
+        }
+    }
+    
+    private Map<String, Object> open(String apkPath, boolean reload, LoadProgress progress) {
+        SessionRegistry.Opened opened = sessions.open(apkPath, reload, progress);
+        try (SessionRegistry.Lease lease = sessions.acquire(opened.session.id)) {
+            Map<String, Object> info = new HashMap<>(lease.core().getApkInfo());
+            info.put("session", opened.session.id);
+            info.put("reused", opened.reused);
+            info.put("replacedSessions", opened.replaced);
+            return info;
+        }
+    }
+    
+    /**
+     * Load an APK and optionally start decompiling its classes in the background.
+     * warmupPackages limits the warm-up to those packages; null or empty means all classes.
+     */
+    public Map<String, Object> loadApk(String apkPath, boolean warmup, List<String> warmupPackages) throws Exception {
+        return loadApk(apkPath, warmup, warmupPackages, false);
+    }
+    
+    /**
+     * Load (or reload) an APK and optionally warm it up in the background
+     */
+    public Map<String, Object> loadApk(String apkPath, boolean warmup, List<String> warmupPackages,
+                                       boolean reload) throws Exception {
+        Map<String, Object> info = loadApk(apkPath, reload);
+        if (warmup) {
+            info.put("warmup", session((String) info.get("session")).startWarmup(warmupPackages));
+        }
+        return info;
+    }
+    
+    /**
+     * Load (or reload) an APK as a background job and wait up to waitMs for it. A load that
+     * finishes in time returns the same result as a blocking load; otherwise the job's
+     * status is returned, to be followed with getLoadJob (or cancelled with cancelLoad).
+     */
+    public Map<String, Object> startLoad(String apkPath, boolean warmup, List<String> warmupPackages,
+                                         boolean reload, long waitMs) throws Exception {
+        LoadJob job;
+        try {
+            job = sessions.startLoad(apkPath, progress -> {
+                Map<String, Object> info = open(apkPath, reload, progress);
+                if (warmup) {
+                    try {
+                        info.put("warmup", session((String) info.get("session")).startWarmup(warmupPackages));
+                    } catch (Exception e) {
+                        info.put("warmup", Map.of("error", String.valueOf(e.getMessage())));
+                    }
+                }
+                return info;
+            });
+        } catch (RuntimeException e) {
+            throw new Exception(e.getMessage(), e);
+        }
+        
+        if (job.await(waitMs)) {
+            if (job.getState() == LoadJob.State.DONE) {
+                Map<String, Object> info = new HashMap<>(job.getResult());
+                info.put("job", job.id);
+                return info;
             }
-            
-            return core.getApkInfo();
+            Object error = job.toMap().get("error");
+            throw new Exception(error != null ? error.toString() : "Load cancelled: " + apkPath);
+        }
+        Map<String, Object> status = job.toMap();
+        status.put("message", "Still loading; poll load_status with this job id");
+        return status;
+    }
+    
+    /**
+     * Get the status of a background load job
+     */
+    public Map<String, Object> getLoadJob(String jobId) throws Exception {
+        try {
+            return sessions.getLoadJob(jobId).toMap();
+        } catch (RuntimeException e) {
+            throw new Exception(e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Cancel a background load job; its partly loaded APK is closed and never becomes a session
+     */
+    public Map<String, Object> cancelLoad(String jobId) throws Exception {
+        try {
+            LoadJob job = sessions.getLoadJob(jobId);
+            boolean cancelled = job.cancel();
+            job.await(CANCEL_WAIT_MS);
+            Map<String, Object> status = job.toMap();
+            status.put("cancelled", cancelled);
+            return status;
+        } catch (RuntimeException e) {
+            throw new Exception(e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Start (or restart) background decompilation of all classes or a package subset
+     */
+    public Map<String, Object> startWarmup(List<String> packages) throws Exception {
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
+            return core.startWarmup(packages, 0);
         } catch (RuntimeException e) {
             throw new Exception(e.getMessage(), e);
         }
     }
     
+    /**
+     * Get load and background warm-up progress
+     */
+    public Map<String, Object> getLoadStatus() throws Exception {
+        Map<String, Object> status;
+        if (sessionId == null && sessions.size() == 0) {
+            // Nothing loaded yet; background loads may still be running
+            status = new HashMap<>();
+            status.put("loaded", false);
+        } else {
+            try (SessionRegistry.Lease lease = acquire()) {
+                status = new HashMap<>(lease.core().getLoadStatus());
+            }
+        }
+        status.put("loads", sessions.listLoadJobs());
+        return status;
+    }
+    
     /**
      * Get all classes in the APK
      */
     public List<String> getAllClasses() throws Exception {
-        checkLoaded();
-        try {
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
             return core.getAllClasses();
         } catch (RuntimeException e) {
             throw new Exception(e.getMessage(), e);
         }
     }
     
+    /**
+     * List class names in a package (and its subpackages) in sorted order, one page at a time;
+     * limit <= 0 returns everything from the cursor on
+     */
+    public Map<String, Object> listClasses(String packagePrefix, int limit, String cursor) throws Exception {
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
+            List<String> names = core.getClassNames(packagePrefix);
+            int from = Math.min(parseCursor(cursor), names.size());
+            int to = limit > 0 ? (int) Math.min((long) from + limit, names.size()) : names.size();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("results", new ArrayList<>(names.subList(from, to)));
+            map.put("returned", to - from);
+            map.put("totalMatches", names.size());
+            map.put("nextCursor", to < names.size() ? String.valueOf(to) : null);
+            return map;
+        } catch (RuntimeException e) {
+            throw new Exception(e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Get packages under a prefix with direct and total class counts
+     */
+    public List<Map<String, Object>> getPackageTree(String packagePrefix, int depth) throws Exception {
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
+            return core.getPackageTree(packagePrefix, depth);
+        } catch (RuntimeException e) {
+            throw new Exception(e.getMessage(), e);
+        }
+    }
+    
     /**
      * Get source code of a class
      */
     public String getClassSource(String className) throws Exception {
-        checkLoaded();
-        try {
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
             String source = core.getClassSource(className);
             if (source == null) {
                 throw new Exception("Class not found: " + className);
@@ -60,16 +322,44 @@ public class JadxApkAnalyzerAPI {
         }
     }
     
+    /**
+     * Read a line-aligned chunk of a class's source
+     */
+    public Map<String, Object> readClassSource(String className, int startLine, int endLine, int maxChars) throws Exception {
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
+            Map<String, Object> chunk = core.readClassSource(className, startLine, endLine, maxChars);
+            if (chunk == null) {
+                throw new Exception("Class not found: " + className);
+            }
+            return chunk;
+        } catch (RuntimeException e) {
+            throw new Exception(e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Get an entity tag for a response about a resource of the APK (see JadxAnalyzerCore.getEntityTag)
+     */
+    public String getEntityTag(String resource) throws Exception {
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
+            return core.getEntityTag(resource);
+        } catch (RuntimeException e) {
+            throw new Exception(e.getMessage(), e);
+        }
+    }
+    
     /**
      * Get methods of a class
      */
     public List<String> getMethodsOfClass(String className) throws Exception {
-        checkLoaded();
-        try {
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
             List<String> methods = core.getMethodsOfClass(className);
             if (methods.isEmpty()) {
                 // Check if class exists
-                if (core.getClassSource(className) == null) {
+                if (!core.hasClass(className)) {
                     throw new Exception("Class not found: " + className);
                 }
             }
@@ -83,12 +373,12 @@ public class JadxApkAnalyzerAPI {
      * Get fields of a class
      */
     public List<String> getFieldsOfClass(String className) throws Exception {
-        checkLoaded();
-        try {
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
             List<String> fields = core.getFieldsOfClass(className);
             if (fields.isEmpty()) {
                 // Check if class exists
-                if (core.getClassSource(className) == null) {
+                if (!core.hasClass(className)) {
                     throw new Exception("Class not found: " + className);
                 }
             }
@@ -102,9 +392,16 @@ public class JadxApkAnalyzerAPI {
      * Get method source code
      */
     public String getMethodSource(String className, String methodName) throws Exception {
-        checkLoaded();
-        try {
-            String methodCode = core.getMethodByName(className, methodName);
+        return getMethodSource(className, methodName, null);
+    }
+    
+    /**
+     * Get method source code of one overload; descriptor is e.g. "(Ljava/lang/String;)V" or null for the first
+     */
+    public String getMethodSource(String className, String methodName, String descriptor) throws Exception {
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
+            String methodCode = core.getMethodByName(className, methodName, descriptor);
             if (methodCode == null) {
                 throw new Exception("Method not found: " + methodName + " in class " + className);
             }
@@ -118,33 +415,110 @@ public class JadxApkAnalyzerAPI {
      * Search for methods across all classes
      */
     public Map<String, List<String>> searchMethod(String methodName) throws Exception {
-        checkLoaded();
-        try {
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
             return core.searchMethodByName(methodName);
         } catch (RuntimeException e) {
             throw new Exception(e.getMessage(), e);
         }
     }
     
+    /**
+     * Search method names with ranking and paging.
+     * mode is exact, prefix or substring (default); cursor is the nextCursor of a previous page.
+     */
+    public Map<String, Object> searchMethod(String methodName, String mode, int limit, String cursor) throws Exception {
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
+            NameIndex.Page page = core.searchMethods(methodName, parseMatchMode(mode), parseCursor(cursor), limit);
+            return toPageMap(JadxAnalyzerCore.groupByOwner(page), page);
+        } catch (RuntimeException e) {
+            throw new Exception(e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Search full class names with ranking and paging
+     */
+    public Map<String, Object> searchClass(String className, String mode, int limit, String cursor) throws Exception {
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
+            NameIndex.Page page = core.searchClassNames(className, parseMatchMode(mode), parseCursor(cursor), limit);
+            List<String> classes = new ArrayList<>(page.matches.size());
+            for (NameIndex.Match match : page.matches) {
+                classes.add(match.value);
+            }
+            return toPageMap(classes, page);
+        } catch (RuntimeException e) {
+            throw new Exception(e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Suggest symbols close to a possibly misspelled name; kind is method, class or null for both
+     */
+    public List<Map<String, Object>> suggestSymbol(String name, String kind, int limit) throws Exception {
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
+            return core.suggestSymbols(name, kind, limit);
+        } catch (RuntimeException e) {
+            throw new Exception(e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Search decompiled code for a literal string or regular expression, without a time limit
+     */
+    public Map<String, Object> searchCode(String query, boolean regex, int maxResults) throws Exception {
+        return searchCode(query, regex, maxResults, Deadline.none());
+    }
+    
+    /**
+     * Search decompiled code, returning the matches found so far once the deadline expires
+     */
+    public Map<String, Object> searchCode(String query, boolean regex, int maxResults, Deadline deadline) throws Exception {
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
+            return core.searchCode(query, regex, maxResults, deadline).toMap();
+        } catch (RuntimeException e) {
+            throw new Exception(e.getMessage(), e);
+        }
+    }
     
     /**
      * Get exported components
      */
     public List<Map<String, Object>> getExportedComponents() throws Exception {
-        checkLoaded();
-        try {
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
             return core.getExportedComponentsAsMap();
         } catch (RuntimeException e) {
             throw new Exception(e.getMessage(), e);
         }
     }
     
+    /**
+     * Get the parsed manifest: package, SDK levels, permissions, all components, launcher activity and deep links
+     */
+    public Map<String, Object> getManifestInfo() throws Exception {
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
+            AppManifest manifest = core.getManifest();
+            if (manifest == null) {
+                throw new Exception("AndroidManifest.xml not loaded");
+            }
+            return manifest.toMap();
+        } catch (RuntimeException e) {
+            throw new Exception(e.getMessage(), e);
+        }
+    }
+    
     /**
      * Get AndroidManifest.xml content
      */
     public String getAndroidManifest() throws Exception {
-        checkLoaded();
-        try {
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
             String manifest = core.getAndroidManifest();
             if (manifest == null) {
                 throw new Exception("AndroidManifest.xml not loaded");
@@ -159,8 +533,8 @@ public class JadxApkAnalyzerAPI {
      * Get main activity class
      */
     public String getMainActivity() throws Exception {
-        checkLoaded();
-        try {
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
             String mainActivity = core.getMainActivityClass();
             if (mainActivity == null) {
                 throw new Exception("No main activity found");
@@ -175,20 +549,32 @@ public class JadxApkAnalyzerAPI {
      * Get all resource file names in the APK
      */
     public List<String> getAllResourceFileNames() throws Exception {
-        checkLoaded();
-        try {
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
             return core.getAllResourceFileNames();
         } catch (RuntimeException e) {
             throw new Exception(e.getMessage(), e);
         }
     }
     
+    /**
+     * Get resource file names under a directory prefix and/or matching a glob (either may be null)
+     */
+    public List<String> getResourceFileNames(String prefix, String glob) throws Exception {
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
+            return core.getResourceFileNames(prefix, glob);
+        } catch (RuntimeException e) {
+            throw new Exception(e.getMessage(), e);
+        }
+    }
+    
     /**
      * Get content of a specific resource file
      */
     public String getResourceFile(String fileName) throws Exception {
-        checkLoaded();
-        try {
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
             String content = core.getResourceFile(fileName);
             if (content == null) {
                 throw new Exception("Resource file not found: " + fileName);
@@ -199,12 +585,89 @@ public class JadxApkAnalyzerAPI {
         }
     }
     
+    /**
+     * Read one chunk of a resource file: text paged by characters, binary files by bytes as base64.
+     * length <= 0 means the default chunk size.
+     */
+    public Map<String, Object> readResource(String fileName, long offset, int length) throws Exception {
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
+            Map<String, Object> chunk = core.readResource(fileName, offset, length);
+            if (chunk == null) {
+                throw new Exception("Resource file not found: " + fileName);
+            }
+            return chunk;
+        } catch (RuntimeException e) {
+            throw new Exception(e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Open the raw bytes of a resource file for streaming; the caller must close the result
+     */
+    public ResourceStream openResource(String fileName) throws Exception {
+        SessionRegistry.Lease lease = acquire();
+        try {
+            JadxAnalyzerCore core = lease.core();
+            InputStream in = core.openResourceStream(fileName);
+            if (in == null) {
+                throw new Exception("Resource file not found: " + fileName);
+            }
+            return new ResourceStream(lease, in, core.getResourceSize(fileName));
+        } catch (Exception e) {
+            lease.close();
+            throw e instanceof RuntimeException ? new Exception(e.getMessage(), e) : e;
+        }
+    }
+    
+    /**
+     * Open an export of all classes of a package (null = all), optionally with their smali;
+     * the caller must close the result
+     */
+    public ClassExport openExport(String packagePrefix, boolean includeSmali) throws Exception {
+        SessionRegistry.Lease lease = acquire();
+        try {
+            lease.core().checkLoaded();
+            return new ClassExport(lease, packagePrefix, includeSmali
+                ? EnumSet.of(ClassExporter.Part.SOURCE, ClassExporter.Part.SMALI)
+                : EnumSet.of(ClassExporter.Part.SOURCE));
+        } catch (RuntimeException e) {
+            lease.close();
+            throw new Exception(e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Get parts of many classes in one call; parts is a comma-separated list of
+     * source, smali, methods and fields (default source,methods,fields); no time limit
+     */
+    public Map<String, Object> getClassesBatch(List<String> classNames, String parts, int maxChars) throws Exception {
+        return getClassesBatch(classNames, parts, maxChars, Deadline.none());
+    }
+    
+    /**
+     * Get parts of many classes, omitting those not reached before the deadline expires
+     */
+    public Map<String, Object> getClassesBatch(List<String> classNames, String parts, int maxChars,
+                                               Deadline deadline) throws Exception {
+        if (classNames == null || classNames.isEmpty()) {
+            throw new Exception("No class names given");
+        }
+        Set<ClassExporter.Part> requested = parseParts(parts);
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
+            return core.getClassesBatch(classNames, requested, maxChars, deadline);
+        } catch (RuntimeException e) {
+            throw new Exception(e.getMessage(), e);
+        }
+    }
+    
     /**
      * Get smali code of a specific class
      */
     public String getSmaliOfClass(String className) throws Exception {
-        checkLoaded();
-        try {
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
             String smali = core.getSmaliOfClass(className);
             if (smali == null) {
                 throw new Exception("Class not found or smali not available: " + className);
@@ -215,13 +678,36 @@ public class JadxApkAnalyzerAPI {
         }
     }
     
+    /**
+     * Read a line-aligned chunk of a class's smali
+     */
+    public Map<String, Object> readSmaliOfClass(String className, int startLine, int endLine, int maxChars) throws Exception {
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
+            Map<String, Object> chunk = core.readSmaliOfClass(className, startLine, endLine, maxChars);
+            if (chunk == null) {
+                throw new Exception("Class not found or smali not available: " + className);
+            }
+            return chunk;
+        } catch (RuntimeException e) {
+            throw new Exception(e.getMessage(), e);
+        }
+    }
+    
     /**
      * Get smali code of a specific method
      */
     public String getSmaliOfMethod(String className, String methodName) throws Exception {
-        checkLoaded();
-        try {
-            String smali = core.getSmaliOfMethod(className, methodName);
+        return getSmaliOfMethod(className, methodName, null);
+    }
+    
+    /**
+     * Get smali code of one overload; descriptor is e.g. "(Ljava/lang/String;)V" or null for the first
+     */
+    public String getSmaliOfMethod(String className, String methodName, String descriptor) throws Exception {
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
+            String smali = core.getSmaliOfMethod(className, methodName, descriptor);
             if (smali == null) {
                 throw new Exception("Method not found or smali not available: " + methodName + " in class " + className);
             }
@@ -231,16 +717,136 @@ public class JadxApkAnalyzerAPI {
         }
     }
     
-    private void checkLoaded() throws Exception {
-        if (core == null || !core.isLoaded()) {
+    /**
+     * List the descriptors of all overloads of a method
+     */
+    public List<String> getMethodOverloads(String className, String methodName) throws Exception {
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
+            List<String> overloads = core.getMethodOverloads(className, methodName);
+            if (overloads == null) {
+                throw new Exception("Class not found: " + className);
+            }
+            return overloads;
+        } catch (RuntimeException e) {
+            throw new Exception(e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Get decompiled code cache statistics
+     */
+    public Map<String, Object> getCacheStats() throws Exception {
+        try (SessionRegistry.Lease lease = acquire()) {
+            JadxAnalyzerCore core = lease.core();
+            return core.getCodeCacheStats();
+        } catch (RuntimeException e) {
+            throw new Exception(e.getMessage(), e);
+        }
+    }
+    
+    private static NameIndex.MatchMode parseMatchMode(String mode) throws Exception {
+        if (mode == null || mode.isEmpty()) {
+            return NameIndex.MatchMode.SUBSTRING;
+        }
+        try {
+            return NameIndex.MatchMode.valueOf(mode.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new Exception("Invalid match mode: " + mode + " (expected exact, prefix or substring)");
+        }
+    }
+    
+    private static Set<ClassExporter.Part> parseParts(String parts) throws Exception {
+        if (parts == null || parts.trim().isEmpty()) {
+            return EnumSet.of(ClassExporter.Part.SOURCE, ClassExporter.Part.METHODS, ClassExporter.Part.FIELDS);
+        }
+        Set<ClassExporter.Part> result = EnumSet.noneOf(ClassExporter.Part.class);
+        for (String part : parts.split(",")) {
+            if (part.trim().isEmpty()) {
+                continue;
+            }
+            try {
+                result.add(ClassExporter.Part.valueOf(part.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new Exception("Invalid part: " + part.trim() + " (expected source, smali, methods or fields)");
+            }
+        }
+        return result;
+    }
+    
+    private static int parseCursor(String cursor) throws Exception {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        int offset;
+        try {
+            offset = Integer.parseInt(cursor);
+        } catch (NumberFormatException e) {
+            throw new Exception("Invalid cursor: " + cursor);
+        }
+        if (offset < 0) {
+            throw new Exception("Invalid cursor: " + cursor);
+        }
+        return offset;
+    }
+    
+    private static Map<String, Object> toPageMap(Object results, NameIndex.Page page) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("results", results);
+        map.put("returned", page.matches.size());
+        map.put("totalMatches", page.totalMatches);
+        map.put("nextCursor", page.hasMore() ? String.valueOf(page.nextOffset) : null);
+        return map;
+    }
+    
+    /**
+     * List loaded sessions, most recently used first
+     */
+    public List<Map<String, Object>> listSessions() {
+        return sessions.list();
+    }
+    
+    /**
+     * Close one session
+     */
+    public void closeSession(String session) throws Exception {
+        try {
+            sessions.close(session);
+        } catch (RuntimeException e) {
+            throw new Exception(e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Hold the bound (or current) session open for one call; the analyzer is not
+     * closed underneath the caller until the lease is released
+     */
+    private SessionRegistry.Lease acquire() throws Exception {
+        SessionRegistry.Lease lease;
+        try {
+            lease = sessions.acquire(sessionId);
+        } catch (RuntimeException e) {
+            throw new Exception(e.getMessage(), e);
+        }
+        if (!lease.core().isLoaded()) {
+            lease.close();
             throw new Exception("No APK loaded. Call loadApk() first.");
         }
+        return lease;
     }
     
+    /**
+     * Close the bound session, or every session when not bound to one
+     */
     public void close() {
-        if (core != null) {
-            core.close();
-            core = null;
+        if (sessionId != null) {
+            try {
+                sessions.close(sessionId);
+            } catch (RuntimeException e) {
+                // Already closed
+            }
+        } else {
+            sessions.closeAll();
         }
     }
 }
@@ -1,19 +1,55 @@
 package com.example.jadxmcpserver;
 
+import com.example.jadxmcpserver.core.Deadline;
+import com.example.jadxmcpserver.core.JadxAnalyzerCore;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/jadx")
 @CrossOrigin(origins = "*")
 public class JadxRestController {
 
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+    // The servlet stream belongs to the container; generators must not close it
+    private static final JsonFactory JSON = new JsonFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    private static final ObjectMapper MAPPER = new ObjectMapper(JSON);
+    // How long a cancellable request may run before it starts writing heartbeats
+    private static final long HEARTBEAT_MS = 1000;
+
+    private final JadxApkAnalyzerAPI jadxAPI;
+    private final RequestWorkers requestWorkers;
+
     @Autowired
-    private JadxApkAnalyzerAPI jadxAPI;
+    public JadxRestController(JadxApkAnalyzerAPI jadxAPI, RequestWorkers requestWorkers) {
+        this.jadxAPI = jadxAPI;
+        this.requestWorkers = requestWorkers;
+    }
 
     @PostMapping("/load-apk")
     public ResponseEntity<?> loadApk(@RequestBody Map<String, String> request) {
@@ -23,37 +59,132 @@ public class JadxRestController {
                 return ResponseEntity.badRequest().body(Map.of("error", "apkPath is required"));
             }
             
-            Map<String, Object> result = jadxAPI.loadApk(apkPath);
+            boolean warmup = Boolean.parseBoolean(request.get("warmup"));
+            List<String> warmupPackages = new ArrayList<>();
+            if (request.get("warmupPackages") != null) {
+                for (String pkg : request.get("warmupPackages").split(",")) {
+                    if (!pkg.trim().isEmpty()) {
+                        warmupPackages.add(pkg.trim());
+                    }
+                }
+            }
+            
+            boolean reload = Boolean.parseBoolean(request.get("reload"));
+            if (request.get("waitSeconds") != null) {
+                // Load as a job; 202 with the job's progress if it outlasts the wait
+                long waitMs = Math.max(0, Long.parseLong(request.get("waitSeconds").trim())) * 1000;
+                Map<String, Object> result = jadxAPI.startLoad(apkPath, warmup, warmupPackages, reload, waitMs);
+                return "running".equals(result.get("state"))
+                    ? ResponseEntity.accepted().body(result)
+                    : ResponseEntity.ok(result);
+            }
+            Map<String, Object> result = jadxAPI.loadApk(apkPath, warmup, warmupPackages, reload);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
+    @GetMapping("/load-status")
+    public ResponseEntity<?> getLoadStatus(@RequestParam(required = false) String job,
+                                           @RequestParam(required = false) String session) {
+        try {
+            if (job != null && !job.isEmpty()) {
+                return ResponseEntity.ok(jadxAPI.getLoadJob(job));
+            }
+            return ResponseEntity.ok(jadxAPI.session(session).getLoadStatus());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/load-cancel")
+    public ResponseEntity<?> cancelLoad(@RequestBody Map<String, String> request) {
+        try {
+            String job = request.get("job");
+            if (job == null || job.trim().isEmpty()) {
+                return ResponseEntity.badRequest().body(Map.of("error", "job is required"));
+            }
+            return ResponseEntity.ok(jadxAPI.cancelLoad(job.trim()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/classes")
-    public ResponseEntity<?> getAllClasses() {
+    public ResponseEntity<?> getAllClasses(@RequestParam(required = false) String packagePrefix,
+                                           @RequestParam(defaultValue = "0") int limit,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(required = false) String session) {
         try {
-            List<String> classes = jadxAPI.getAllClasses();
-            return ResponseEntity.ok(Map.of("classes", classes));
+            // limit 0 (the default) returns every class, as before paging existed
+            Map<String, Object> page = jadxAPI.session(session).listClasses(packagePrefix, limit, cursor);
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("classes", page.get("results"));
+            response.put("totalClasses", page.get("totalMatches"));
+            response.put("nextCursor", page.get("nextCursor"));
+            return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
+    @GetMapping("/packages")
+    public ResponseEntity<?> getPackageTree(@RequestParam(required = false) String packagePrefix,
+                                            @RequestParam(defaultValue = "0") int depth,
+                                            @RequestParam(required = false) String session) {
+        try {
+            List<Map<String, Object>> packages = jadxAPI.session(session).getPackageTree(packagePrefix, depth);
+            return ResponseEntity.ok(Map.of("packages", packages));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/classes/batch")
+    public ResponseEntity<StreamingResponseBody> getClassesBatch(@RequestParam List<String> names,
+                                                                 @RequestParam(required = false) String parts,
+                                                                 @RequestParam(defaultValue = "0") int maxChars,
+                                                                 @RequestParam(defaultValue = "0") int timeoutSeconds,
+                                                                 @RequestParam(required = false) String session) {
+        return cancellable(timeoutSeconds, deadline -> {
+            try {
+                Map<String, Object> batch = jadxAPI.session(session).getClassesBatch(names, parts, maxChars, deadline);
+                return ResponseEntity.ok(batch);
+            } catch (Exception e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        });
+    }
+
     @GetMapping("/class/{className}/source")
-    public ResponseEntity<?> getClassSource(@PathVariable String className) {
+    public ResponseEntity<?> getClassSource(@PathVariable String className,
+                                            @RequestParam(required = false) Integer startLine,
+                                            @RequestParam(required = false) Integer endLine,
+                                            @RequestParam(required = false) Integer maxChars,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                            @RequestParam(required = false) String session) {
         try {
-            String source = jadxAPI.getClassSource(className);
-            return ResponseEntity.ok(Map.of("source", source));
+            String etag = entityTag(session, "source", className, startLine, endLine, maxChars);
+            if (notModified(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            if (startLine != null || endLine != null || maxChars != null) {
+                return ResponseEntity.ok().eTag(etag).body(jadxAPI.session(session).readClassSource(className,
+                    startLine != null ? startLine : 1, endLine != null ? endLine : 0, maxChars != null ? maxChars : 0));
+            }
+            String source = jadxAPI.session(session).getClassSource(className);
+            return ResponseEntity.ok().eTag(etag).body(Map.of("source", source));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
     @GetMapping("/class/{className}/methods")
-    public ResponseEntity<?> getClassMethods(@PathVariable String className) {
+    public ResponseEntity<?> getClassMethods(@PathVariable String className,
+                                             @RequestParam(required = false) String session) {
         try {
-            List<String> methods = jadxAPI.getMethodsOfClass(className);
+            List<String> methods = jadxAPI.session(session).getMethodsOfClass(className);
             return ResponseEntity.ok(Map.of("methods", methods));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -61,9 +192,10 @@ public class JadxRestController {
     }
 
     @GetMapping("/class/{className}/fields")
-    public ResponseEntity<?> getClassFields(@PathVariable String className) {
+    public ResponseEntity<?> getClassFields(@PathVariable String className,
+                                            @RequestParam(required = false) String session) {
         try {
-            List<String> fields = jadxAPI.getFieldsOfClass(className);
+            List<String> fields = jadxAPI.session(session).getFieldsOfClass(className);
             return ResponseEntity.ok(Map.of("fields", fields));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -71,29 +203,84 @@ public class JadxRestController {
     }
 
     @GetMapping("/class/{className}/method/{methodName}")
-    public ResponseEntity<?> getMethodSource(@PathVariable String className, @PathVariable String methodName) {
+    public ResponseEntity<?> getMethodSource(@PathVariable String className,
+                                             @PathVariable String methodName,
+                                             @RequestParam(required = false) String descriptor,
+                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                             @RequestParam(required = false) String session) {
         try {
-            String source = jadxAPI.getMethodSource(className, methodName);
-            return ResponseEntity.ok(Map.of("source", source));
+            String etag = entityTag(session, "method-source", className, methodName, descriptor);
+            if (notModified(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            String source = jadxAPI.session(session).getMethodSource(className, methodName, descriptor);
+            return ResponseEntity.ok().eTag(etag).body(Map.of("source", source));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
     @GetMapping("/search/method/{methodName}")
-    public ResponseEntity<?> searchMethod(@PathVariable String methodName) {
+    public ResponseEntity<?> searchMethod(@PathVariable String methodName,
+                                          @RequestParam(defaultValue = "substring") String mode,
+                                          @RequestParam(defaultValue = "100") int limit,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) String session) {
+        try {
+            Map<String, Object> results = jadxAPI.session(session).searchMethod(methodName, mode, limit, cursor);
+            return ResponseEntity.ok(results);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/search/class/{className}")
+    public ResponseEntity<?> searchClass(@PathVariable String className,
+                                         @RequestParam(defaultValue = "substring") String mode,
+                                         @RequestParam(defaultValue = "100") int limit,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) String session) {
         try {
-            Map<String, List<String>> results = jadxAPI.searchMethod(methodName);
-            return ResponseEntity.ok(Map.of("results", results));
+            Map<String, Object> results = jadxAPI.session(session).searchClass(className, mode, limit, cursor);
+            return ResponseEntity.ok(results);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggestSymbol(@RequestParam String name,
+                                           @RequestParam(required = false) String kind,
+                                           @RequestParam(defaultValue = "10") int limit,
+                                           @RequestParam(required = false) String session) {
+        try {
+            List<Map<String, Object>> suggestions = jadxAPI.session(session).suggestSymbol(name, kind, limit);
+            return ResponseEntity.ok(Map.of("suggestions", suggestions));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/search/code")
+    public ResponseEntity<StreamingResponseBody> searchCode(@RequestParam String query,
+                                                            @RequestParam(defaultValue = "false") boolean regex,
+                                                            @RequestParam(defaultValue = "100") int maxResults,
+                                                            @RequestParam(defaultValue = "0") int timeoutSeconds,
+                                                            @RequestParam(required = false) String session) {
+        return cancellable(timeoutSeconds, deadline -> {
+            try {
+                Map<String, Object> results = jadxAPI.session(session).searchCode(query, regex, maxResults, deadline);
+                return ResponseEntity.ok(results);
+            } catch (Exception e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        });
+    }
+
     @GetMapping("/components")
-    public ResponseEntity<?> getExportedComponents() {
+    public ResponseEntity<?> getExportedComponents(@RequestParam(required = false) String session) {
         try {
-            List<Map<String, Object>> components = jadxAPI.getExportedComponents();
+            List<Map<String, Object>> components = jadxAPI.session(session).getExportedComponents();
             return ResponseEntity.ok(Map.of("components", components));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -101,19 +288,28 @@ public class JadxRestController {
     }
 
     @GetMapping("/manifest")
-    public ResponseEntity<?> getAndroidManifest() {
+    public ResponseEntity<?> getAndroidManifest(@RequestParam(required = false) String session) {
         try {
-            String manifest = jadxAPI.getAndroidManifest();
+            String manifest = jadxAPI.session(session).getAndroidManifest();
             return ResponseEntity.ok(Map.of("manifest", manifest));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
+    @GetMapping("/manifest/info")
+    public ResponseEntity<?> getManifestInfo(@RequestParam(required = false) String session) {
+        try {
+            return ResponseEntity.ok(jadxAPI.session(session).getManifestInfo());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/main-activity")
-    public ResponseEntity<?> getMainActivity() {
+    public ResponseEntity<?> getMainActivity(@RequestParam(required = false) String session) {
         try {
-            String mainActivity = jadxAPI.getMainActivity();
+            String mainActivity = jadxAPI.session(session).getMainActivity();
             return ResponseEntity.ok(Map.of("mainActivity", mainActivity));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -121,19 +317,138 @@ public class JadxRestController {
     }
 
     @GetMapping("/resources")
-    public ResponseEntity<?> getAllResourceFileNames() {
+    public ResponseEntity<?> getAllResourceFileNames(@RequestParam(required = false) String prefix,
+                                                     @RequestParam(required = false) String glob,
+                                                     @RequestParam(required = false) String session) {
         try {
-            List<String> resources = jadxAPI.getAllResourceFileNames();
+            List<String> resources = jadxAPI.session(session).getResourceFileNames(prefix, glob);
             return ResponseEntity.ok(Map.of("resources", resources));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
+    /**
+     * Raw bytes of a resource file, streamed from the APK. Supports a single HTTP byte
+     * range (206 Partial Content); the session stays open until the body is written.
+     */
+    @GetMapping("/resources/raw")
+    public ResponseEntity<StreamingResponseBody> downloadResource(@RequestParam String name,
+                                              @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                                              @RequestParam(required = false) String session) {
+        JadxApkAnalyzerAPI.ResourceStream resource;
+        try {
+            resource = jadxAPI.session(session).openResource(name);
+        } catch (Exception e) {
+            return streamedError(e.getMessage());
+        }
+
+        try {
+            long size = resource.getSize();
+            long start = 0;
+            long end = size - 1;
+            boolean partial = false;
+            if (range != null && size >= 0) {
+                List<HttpRange> ranges;
+                try {
+                    ranges = HttpRange.parseRanges(range);
+                } catch (IllegalArgumentException e) {
+                    // An unparseable Range header is ignored and the whole file is sent
+                    ranges = List.of();
+                }
+                if (ranges.size() == 1) {
+                    HttpRange requested = ranges.get(0);
+                    start = requested.getRangeStart(size);
+                    end = requested.getRangeEnd(size);
+                    if (start >= size || start > end) {
+                        resource.close();
+                        return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                            .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                            .build();
+                    }
+                    partial = true;
+                }
+            }
+
+            long skip = start;
+            long length = end - start + 1;
+            StreamingResponseBody body = out -> {
+                try (JadxApkAnalyzerAPI.ResourceStream stream = resource) {
+                    InputStream in = stream.getInputStream();
+                    JadxAnalyzerCore.skipFully(in, skip);
+                    copy(in, out, size >= 0 ? length : Long.MAX_VALUE);
+                }
+            };
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.status(partial ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+                .contentType(MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM))
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                // Byte ranges address the stored bytes; keep the container from compressing them
+                .header(HttpHeaders.CONTENT_ENCODING, "identity")
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                    .filename(name.substring(name.lastIndexOf('/') + 1)).build().toString());
+            if (size >= 0) {
+                response.contentLength(length);
+            }
+            if (partial) {
+                response.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+            return response.body(body);
+        } catch (RuntimeException e) {
+            resource.close();
+            return streamedError(e.getMessage());
+        }
+    }
+
+    /**
+     * Stream decompiled classes as NDJSON, one {"className", "source"[, "smali"]} object per
+     * line in sorted class order ("error" replaces "source" for classes that fail).
+     * Classes are decompiled in parallel a bounded window ahead of the socket.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportClasses(@RequestParam(required = false) String packagePrefix,
+                                           @RequestParam(defaultValue = "false") boolean smali,
+                                           @RequestParam(required = false) String session) {
+        JadxApkAnalyzerAPI.ClassExport export;
+        try {
+            export = jadxAPI.session(session).openExport(packagePrefix, smali);
+        } catch (Exception e) {
+            return streamedError(e.getMessage());
+        }
+
+        StreamingResponseBody body = out -> {
+            try (JadxApkAnalyzerAPI.ClassExport classes = export;
+                 JsonGenerator json = JSON.createGenerator(out)) {
+                json.setRootValueSeparator(null);
+                classes.writeTo(record -> {
+                    json.writeStartObject();
+                    json.writeStringField("className", record.className);
+                    if (record.error != null) {
+                        json.writeStringField("error", record.error);
+                    } else {
+                        json.writeStringField("source", record.source);
+                        if (smali) {
+                            json.writeStringField("smali", record.smali);
+                        }
+                    }
+                    json.writeEndObject();
+                    json.writeRaw('\n');
+                    // Hand each line to the container so a slow client blocks the export
+                    json.flush();
+                    return true;
+                });
+            }
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(body);
+    }
+
     @GetMapping("/resource/{fileName}")
-    public ResponseEntity<?> getResourceFile(@PathVariable String fileName) {
+    public ResponseEntity<?> getResourceFile(@PathVariable String fileName,
+                                             @RequestParam(required = false) String session) {
         try {
-            String content = jadxAPI.getResourceFile(fileName);
+            String content = jadxAPI.session(session).getResourceFile(fileName);
             return ResponseEntity.ok(Map.of("content", content));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -141,28 +456,203 @@ public class JadxRestController {
     }
 
     @GetMapping("/class/{className}/smali")
-    public ResponseEntity<?> getSmaliOfClass(@PathVariable String className) {
+    public ResponseEntity<?> getSmaliOfClass(@PathVariable String className,
+                                             @RequestParam(required = false) Integer startLine,
+                                             @RequestParam(required = false) Integer endLine,
+                                             @RequestParam(required = false) Integer maxChars,
+                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                             @RequestParam(required = false) String session) {
         try {
-            String smali = jadxAPI.getSmaliOfClass(className);
-            return ResponseEntity.ok(Map.of("smali", smali));
+            String etag = entityTag(session, "smali", className, startLine, endLine, maxChars);
+            if (notModified(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            if (startLine != null || endLine != null || maxChars != null) {
+                return ResponseEntity.ok().eTag(etag).body(jadxAPI.session(session).readSmaliOfClass(className,
+                    startLine != null ? startLine : 1, endLine != null ? endLine : 0, maxChars != null ? maxChars : 0));
+            }
+            String smali = jadxAPI.session(session).getSmaliOfClass(className);
+            return ResponseEntity.ok().eTag(etag).body(Map.of("smali", smali));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
     @GetMapping("/class/{className}/method/{methodName}/smali")
-    public ResponseEntity<?> getSmaliOfMethod(@PathVariable String className, @PathVariable String methodName) {
+    public ResponseEntity<?> getSmaliOfMethod(@PathVariable String className,
+                                              @PathVariable String methodName,
+                                              @RequestParam(required = false) String descriptor,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                              @RequestParam(required = false) String session) {
+        try {
+            String etag = entityTag(session, "method-smali", className, methodName, descriptor);
+            if (notModified(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            String smali = jadxAPI.session(session).getSmaliOfMethod(className, methodName, descriptor);
+            return ResponseEntity.ok().eTag(etag).body(Map.of("smali", smali));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/class/{className}/method/{methodName}/overloads")
+    public ResponseEntity<?> getMethodOverloads(@PathVariable String className,
+                                                @PathVariable String methodName,
+                                                @RequestParam(required = false) String session) {
         try {
-            String smali = jadxAPI.getSmaliOfMethod(className, methodName);
-            return ResponseEntity.ok(Map.of("smali", smali));
+            List<String> overloads = jadxAPI.session(session).getMethodOverloads(className, methodName);
+            return ResponseEntity.ok(Map.of("overloads", overloads));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
+    @GetMapping("/cache/stats")
+    public ResponseEntity<?> getCacheStats(@RequestParam(required = false) String session) {
+        try {
+            return ResponseEntity.ok(jadxAPI.session(session).getCacheStats());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/sessions")
+    public ResponseEntity<?> listSessions() {
+        return ResponseEntity.ok(Map.of("sessions", jadxAPI.listSessions()));
+    }
+
+    /**
+     * Run a long request on a worker under a deadline (timeoutSeconds, 0 = the default).
+     * The container only notices a client that went away when it writes, so a request still
+     * running after HEARTBEAT_MS commits a 200 and writes a space (leading whitespace is
+     * valid JSON) every HEARTBEAT_MS until the result is ready; a failed write cancels the
+     * deadline and the work stops instead of running on for nobody. Errors of such a
+     * request arrive as a 200 with an error body; quicker requests keep their status.
+     * When all request workers are busy and their queue is full the answer is 503.
+     */
+    private ResponseEntity<StreamingResponseBody> cancellable(int timeoutSeconds,
+                                                              Function<Deadline, ResponseEntity<?>> work) {
+        // No owner thread: this container thread is released once the response goes async
+        Deadline deadline = Deadline.after(timeoutSeconds * 1000L, null);
+        Future<ResponseEntity<?>> pending;
+        try {
+            pending = requestWorkers.submit(() -> work.apply(deadline));
+        } catch (RejectedExecutionException e) {
+            return streamedError(HttpStatus.SERVICE_UNAVAILABLE, "Too many long requests in progress, try again later");
+        }
+        ResponseEntity<?> quick = await(pending, HEARTBEAT_MS);
+        if (quick != null) {
+            Object result = quick.getBody();
+            return ResponseEntity.status(quick.getStatusCode())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> MAPPER.writeValue(out, result));
+        }
+
+        StreamingResponseBody body = out -> {
+            try {
+                ResponseEntity<?> response;
+                while ((response = await(pending, HEARTBEAT_MS)) == null) {
+                    out.write(' ');
+                    out.flush();
+                }
+                MAPPER.writeValue(out, response.getBody());
+            } catch (IOException e) {
+                deadline.cancel();
+                throw e;
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Result of a request worker, or null if it is still running after timeoutMs
+     */
+    private static ResponseEntity<?> await(Future<ResponseEntity<?>> pending, long timeoutMs) {
+        try {
+            return pending.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.badRequest().body(Map.of("error", "Request interrupted"));
+        } catch (ExecutionException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getCause().getMessage())));
+        }
+    }
+
+    /**
+     * Bad request response for an endpoint whose body is streamed. Spring only streams a
+     * ResponseEntity declared with a StreamingResponseBody body, so errors are streamed too.
+     */
+    private static ResponseEntity<StreamingResponseBody> streamedError(String message) {
+        return streamedError(HttpStatus.BAD_REQUEST, message);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> streamedError(HttpStatus status, String message) {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = JSON.createGenerator(out)) {
+                json.writeStartObject();
+                json.writeStringField("error", String.valueOf(message));
+                json.writeEndObject();
+            }
+        };
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Weak entity tag of a response about the session's APK, from the APK's content hash, the
+     * decompiler settings and the given parts (endpoint, class, parameters). Weak because the
+     * container may gzip the body, and Tomcat does not compress responses with strong tags.
+     */
+    private String entityTag(String session, Object... parts) throws Exception {
+        StringBuilder resource = new StringBuilder();
+        for (Object part : parts) {
+            resource.append(part).append('\n');
+        }
+        return "W/\"" + jadxAPI.session(session).getEntityTag(resource.toString()) + "\"";
+    }
+
+    /**
+     * Whether an If-None-Match header matches a tag (weak comparison, as RFC 9110 requires)
+     */
+    private static boolean notModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || opaqueTag(tag).equals(opaqueTag(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaqueTag(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static void copy(InputStream in, OutputStream out, long limit) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_BYTES];
+        long remaining = limit;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                break;
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+    }
+
     @PostMapping("/close")
-    public ResponseEntity<?> closeAnalyzer() {
+    public ResponseEntity<?> closeAnalyzer(@RequestParam(required = false) String session) {
         try {
+            if (session != null && !session.isEmpty()) {
+                jadxAPI.closeSession(session);
+                return ResponseEntity.ok(Map.of("message", "Session closed: " + session));
+            }
             jadxAPI.close();
             return ResponseEntity.ok(Map.of("message", "Analyzer closed successfully"));
         } catch (Exception e) {
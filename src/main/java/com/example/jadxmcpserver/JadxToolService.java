@@ -1,58 +1,135 @@
 package com.example.jadxmcpserver;
 
+import com.example.jadxmcpserver.core.Deadline;
 import org.springframework.stereotype.Service;
 import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
 
 import java.util.*;
 import java.util.logging.Logger;
 
 /**
  * JADX Tool Service - Provides MCP tools for APK analysis
+ * Uses the application's JadxApkAnalyzerAPI bean, so in combined mode the MCP tools
+ * and the REST API see the same loaded sessions, caches and indexes.
  */
 @Service
 public class JadxToolService {
     
     private static final Logger logger = Logger.getLogger(JadxToolService.class.getName());
-    private final JadxApkAnalyzerAPI analyzer = new JadxApkAnalyzerAPI();
+    private static final int DEFAULT_MAX_RESULTS = 100;
+    private static final int DEFAULT_MAX_SUGGESTIONS = 10;
+    private static final int DEFAULT_MAX_CLASSES = 1000;
+    private static final int DEFAULT_LOAD_WAIT_SECONDS = 20;
+    private static final String TIMEOUT_DESCRIPTION = "Seconds to work before returning what was found so far, marked truncated (default 120)";
+    private static final String CHUNK_SIZE_DESCRIPTION = "Maximum characters per chunk, about 4 per token (default 40960, at most 1048576); a chunk always ends on a whole line";
+    private static final String SESSION_DESCRIPTION = "Session id returned by load_apk (default: the most recently loaded APK)";
+    private final JadxApkAnalyzerAPI analyzer;
     
-    @Tool(name = "load_apk", description = "Load and analyze an APK file")
-    public Map<String, Object> loadApk(String apkPath) {
+    public JadxToolService(JadxApkAnalyzerAPI analyzer) {
+        this.analyzer = analyzer;
+    }
+    
+    @Tool(name = "load_apk", description = "Load and analyze an APK file. Loading runs as a background job: if it takes longer than waitSeconds, the job id and progress are returned instead, to poll with load_status or stop with cancel_load. Optionally decompile classes in the background so later source requests are instant")
+    public Map<String, Object> loadApk(
+            @ToolParam(description = "Path to the APK file") String apkPath,
+            @ToolParam(description = "Decompile classes in the background after loading (default false); track with load_status", required = false) Boolean warmup,
+            @ToolParam(description = "Comma-separated packages to limit the warm-up to, e.g. com.example.app (default all)", required = false) String warmupPackages,
+            @ToolParam(description = "Rebuild the analysis even if this APK is already loaded (default false); the previous one keeps serving until the new one is ready", required = false) Boolean reload,
+            @ToolParam(description = "Seconds to wait for the load to finish before returning its job id (default 20, 0 = return at once)", required = false) Integer waitSeconds) {
         try {
             logger.info("Loading APK: " + apkPath);
-            return analyzer.loadApk(apkPath);
+            int wait = waitSeconds != null ? Math.max(0, waitSeconds) : DEFAULT_LOAD_WAIT_SECONDS;
+            return analyzer.startLoad(apkPath, Boolean.TRUE.equals(warmup), splitList(warmupPackages),
+                Boolean.TRUE.equals(reload), wait * 1000L);
         } catch (Exception e) {
             logger.severe("Error loading APK: " + e.getMessage());
             return Map.of("error", e.getMessage());
         }
     }
     
-    @Tool(name = "get_all_classes", description = "Get list of all classes in the loaded APK")
-    public List<String> getAllClasses() {
+    @Tool(name = "load_status", description = "Get load and background decompilation progress: classes done/total, failures, throughput, and running load jobs. With a job id, get that load's state, current phase and phase timings instead")
+    public Map<String, Object> loadStatus(
+            @ToolParam(description = "Load job id returned by load_apk (default: status of the session)", required = false) String job,
+            @ToolParam(description = SESSION_DESCRIPTION, required = false) String session) {
+        try {
+            logger.info("Getting load status");
+            if (job != null && !job.isEmpty()) {
+                return analyzer.getLoadJob(job);
+            }
+            return analyzer.session(session).getLoadStatus();
+        } catch (Exception e) {
+            logger.severe("Error getting load status: " + e.getMessage());
+            return Map.of("error", e.getMessage());
+        }
+    }
+    
+    @Tool(name = "cancel_load", description = "Cancel a running load job; the partly loaded APK is released and no session is created")
+    public Map<String, Object> cancelLoad(
+            @ToolParam(description = "Load job id returned by load_apk") String job) {
+        try {
+            logger.info("Cancelling load: " + job);
+            return analyzer.cancelLoad(job);
+        } catch (Exception e) {
+            logger.severe("Error cancelling load: " + e.getMessage());
+            return Map.of("error", e.getMessage());
+        }
+    }
+    
+    @Tool(name = "get_all_classes", description = "List classes of the loaded APK in sorted order, optionally only one package and its subpackages. Large APKs are paged: pass nextCursor back while it is set. Use get_package_tree first to see where the classes are")
+    public Map<String, Object> getAllClasses(
+            @ToolParam(description = "Package to list, e.g. com.example.app (default: all classes)", required = false) String packagePrefix,
+            @ToolParam(description = "Maximum number of classes to return (default 1000)", required = false) Integer limit,
+            @ToolParam(description = "nextCursor from a previous call to continue the listing", required = false) String cursor,
+            @ToolParam(description = SESSION_DESCRIPTION, required = false) String session) {
         try {
             logger.info("Getting all classes");
-            return analyzer.getAllClasses();
+            return analyzer.session(session).listClasses(packagePrefix,
+                limit != null ? limit : DEFAULT_MAX_CLASSES, cursor);
         } catch (Exception e) {
             logger.severe("Error getting classes: " + e.getMessage());
-            return List.of("Error: " + e.getMessage());
+            return Map.of("error", e.getMessage());
+        }
+    }
+    
+    @Tool(name = "get_package_tree", description = "Get the packages of the loaded APK with the number of classes directly in each and in each including subpackages, sorted by name")
+    public List<Map<String, Object>> getPackageTree(
+            @ToolParam(description = "Only packages under this one, e.g. com.example (default: all)", required = false) String packagePrefix,
+            @ToolParam(description = "Package levels to list below the prefix (default 0 = all)", required = false) Integer depth,
+            @ToolParam(description = SESSION_DESCRIPTION, required = false) String session) {
+        try {
+            logger.info("Getting package tree");
+            return analyzer.session(session).getPackageTree(packagePrefix, depth != null ? depth : 0);
+        } catch (Exception e) {
+            logger.severe("Error getting package tree: " + e.getMessage());
+            return List.of(Map.of("error", e.getMessage()));
         }
     }
     
-    @Tool(name = "get_class_source", description = "Get the decompiled source code of a specific class")
-    public String getClassSource(String className) {
+    @Tool(name = "get_class_source", description = "Get the decompiled source code of a specific class in line-aligned chunks of at most maxChars characters. Pass nextStartLine back as startLine while hasMore is true, or ask for a line range directly")
+    public Map<String, Object> getClassSource(
+            String className,
+            @ToolParam(description = "First line to return, 1-based (default 1)", required = false) Integer startLine,
+            @ToolParam(description = "Last line to return (default: the end of the class)", required = false) Integer endLine,
+            @ToolParam(description = CHUNK_SIZE_DESCRIPTION, required = false) Integer maxChars,
+            @ToolParam(description = SESSION_DESCRIPTION, required = false) String session) {
         try {
             logger.info("Getting source for class: " + className);
-            return analyzer.getClassSource(className);
+            return analyzer.session(session).readClassSource(className,
+                startLine != null ? startLine : 1, endLine != null ? endLine : 0, maxChars != null ? maxChars : 0);
         } catch (Exception e) {
             logger.severe("Error getting class source: " + e.getMessage());
-            return "Error: " + e.getMessage();
+            return Map.of("error", e.getMessage());
         }
     }
     
     @Tool(name = "get_methods_of_class", description = "Get list of methods in a specific class")
-    public List<String> getMethodsOfClass(String className) {
+    public List<String> getMethodsOfClass(
+            String className,
+            @ToolParam(description = SESSION_DESCRIPTION, required = false) String session) {
         try {
             logger.info("Getting methods for class: " + className);
-            return analyzer.getMethodsOfClass(className);
+            return analyzer.session(session).getMethodsOfClass(className);
         } catch (Exception e) {
             logger.severe("Error getting methods: " + e.getMessage());
             return List.of("Error: " + e.getMessage());
@@ -60,54 +137,146 @@ public class JadxToolService {
     }
     
     @Tool(name = "get_fields_of_class", description = "Get list of fields in a specific class")
-    public List<String> getFieldsOfClass(String className) {
+    public List<String> getFieldsOfClass(
+            String className,
+            @ToolParam(description = SESSION_DESCRIPTION, required = false) String session) {
         try {
             logger.info("Getting fields for class: " + className);
-            return analyzer.getFieldsOfClass(className);
+            return analyzer.session(session).getFieldsOfClass(className);
         } catch (Exception e) {
             logger.severe("Error getting fields: " + e.getMessage());
             return List.of("Error: " + e.getMessage());
         }
     }
     
-    @Tool(name = "get_method_by_name", description = "Get the source code of a specific method")
-    public String getMethodByName(String className, String methodName) {
+    @Tool(name = "get_classes_batch", description = "Get the source, smali, methods and/or fields of many classes in one call, decompiled in parallel. Results keep the given order, with an error per class that fails. Stops before exceeding maxChars of source and smali; classes left out are listed in omitted, so ask for them in another call")
+    public Map<String, Object> getClassesBatch(
+            @ToolParam(description = "Full class names, e.g. [\"com.example.app.MainActivity\", \"com.example.app.Utils\"]") List<String> classNames,
+            @ToolParam(description = "Comma-separated parts to return: source, smali, methods, fields (default source,methods,fields)", required = false) String parts,
+            @ToolParam(description = "Maximum total characters of source and smali, about 4 per token (default 163840, at most 4194304)", required = false) Integer maxChars,
+            @ToolParam(description = TIMEOUT_DESCRIPTION, required = false) Integer timeoutSeconds,
+            @ToolParam(description = SESSION_DESCRIPTION, required = false) String session) {
+        try {
+            logger.info("Getting batch of " + (classNames != null ? classNames.size() : 0) + " classes");
+            return analyzer.session(session).getClassesBatch(classNames, parts, maxChars != null ? maxChars : 0,
+                deadline(timeoutSeconds));
+        } catch (Exception e) {
+            logger.severe("Error getting classes batch: " + e.getMessage());
+            return Map.of("error", e.getMessage());
+        }
+    }
+    
+    @Tool(name = "get_method_by_name", description = "Get the source code of a specific method. For overloaded methods pass a descriptor; otherwise the first overload is returned")
+    public String getMethodByName(
+            String className,
+            String methodName,
+            @ToolParam(description = "JVM descriptor or its prefix to pick an overload, e.g. (Ljava/lang/String;I)V or (I) (default: first overload)", required = false) String descriptor,
+            @ToolParam(description = SESSION_DESCRIPTION, required = false) String session) {
         try {
             logger.info("Getting method source: " + className + "." + methodName);
-            return analyzer.getMethodSource(className, methodName);
+            return analyzer.session(session).getMethodSource(className, methodName, descriptor);
         } catch (Exception e) {
             logger.severe("Error getting method source: " + e.getMessage());
             return "Error: " + e.getMessage();
         }
     }
     
-    @Tool(name = "search_method_by_name", description = "Search for methods across all classes")
-    public Map<String, List<String>> searchMethodByName(String methodName) {
+    @Tool(name = "search_method_by_name", description = "Search for methods by name across all classes (case-insensitive). Results are grouped by class and ranked exact > prefix > substring; pass nextCursor to fetch the next page")
+    public Map<String, Object> searchMethodByName(
+            @ToolParam(description = "Method name or part of it") String methodName,
+            @ToolParam(description = "Match mode: exact, prefix or substring (default substring)", required = false) String matchMode,
+            @ToolParam(description = "Maximum number of methods to return (default 100)", required = false) Integer limit,
+            @ToolParam(description = "nextCursor from a previous call to continue the listing", required = false) String cursor,
+            @ToolParam(description = SESSION_DESCRIPTION, required = false) String session) {
         try {
             logger.info("Searching for method: " + methodName);
-            return analyzer.searchMethod(methodName);
+            return analyzer.session(session).searchMethod(methodName, matchMode,
+                limit != null ? limit : DEFAULT_MAX_RESULTS, cursor);
         } catch (Exception e) {
             logger.severe("Error searching methods: " + e.getMessage());
-            return Map.of("error", List.of(e.getMessage()));
+            return Map.of("error", e.getMessage());
+        }
+    }
+    
+    @Tool(name = "search_class_by_name", description = "Search for classes by full or partial name (case-insensitive). Results are ranked exact > prefix > substring; pass nextCursor to fetch the next page")
+    public Map<String, Object> searchClassByName(
+            @ToolParam(description = "Class name or part of it, e.g. MainActivity or com.example") String className,
+            @ToolParam(description = "Match mode: exact, prefix or substring (default substring)", required = false) String matchMode,
+            @ToolParam(description = "Maximum number of classes to return (default 100)", required = false) Integer limit,
+            @ToolParam(description = "nextCursor from a previous call to continue the listing", required = false) String cursor,
+            @ToolParam(description = SESSION_DESCRIPTION, required = false) String session) {
+        try {
+            logger.info("Searching for class: " + className);
+            return analyzer.session(session).searchClass(className, matchMode,
+                limit != null ? limit : DEFAULT_MAX_RESULTS, cursor);
+        } catch (Exception e) {
+            logger.severe("Error searching classes: " + e.getMessage());
+            return Map.of("error", e.getMessage());
+        }
+    }
+    
+    @Tool(name = "suggest_symbol", description = "Suggest existing method or class names closest to a possibly misspelled name (edit distance). Use it when a method or class is not found")
+    public List<Map<String, Object>> suggestSymbol(
+            @ToolParam(description = "Symbol name, e.g. loadUrll, WebView.loadUrl or MainActivty") String name,
+            @ToolParam(description = "Symbol kind: method or class (default both)", required = false) String kind,
+            @ToolParam(description = "Maximum number of suggestions (default 10)", required = false) Integer limit,
+            @ToolParam(description = SESSION_DESCRIPTION, required = false) String session) {
+        try {
+            logger.info("Suggesting symbols for: " + name);
+            return analyzer.session(session).suggestSymbol(name, kind, limit != null ? limit : DEFAULT_MAX_SUGGESTIONS);
+        } catch (Exception e) {
+            logger.severe("Error suggesting symbols: " + e.getMessage());
+            return List.of(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @Tool(name = "search_code", description = "Search the decompiled Java code of all classes for a literal string or regular expression. Returns matching lines with class name and line number")
+    public Map<String, Object> searchCode(
+            @ToolParam(description = "Literal text or Java regular expression to search for") String query,
+            @ToolParam(description = "Treat the query as a regular expression (default false)", required = false) Boolean regex,
+            @ToolParam(description = "Maximum number of matching lines to return (default 100)", required = false) Integer maxResults,
+            @ToolParam(description = TIMEOUT_DESCRIPTION, required = false) Integer timeoutSeconds,
+            @ToolParam(description = SESSION_DESCRIPTION, required = false) String session) {
+        try {
+            logger.info("Searching code for: " + query);
+            return analyzer.session(session).searchCode(query, Boolean.TRUE.equals(regex),
+                maxResults != null ? maxResults : DEFAULT_MAX_RESULTS, deadline(timeoutSeconds));
+        } catch (Exception e) {
+            logger.severe("Error searching code: " + e.getMessage());
+            return Map.of("error", e.getMessage());
         }
     }
     
     @Tool(name = "get_exported_components", description = "Get all exported components from AndroidManifest.xml")
-    public List<Map<String, Object>> getExportedComponents() {
+    public List<Map<String, Object>> getExportedComponents(
+            @ToolParam(description = SESSION_DESCRIPTION, required = false) String session) {
         try {
             logger.info("Getting exported components");
-            return analyzer.getExportedComponents();
+            return analyzer.session(session).getExportedComponents();
         } catch (Exception e) {
             logger.severe("Error getting exported components: " + e.getMessage());
             return List.of(Map.of("error", e.getMessage()));
         }
     }
     
+    @Tool(name = "get_manifest_info", description = "Get the parsed AndroidManifest.xml: package, versions, SDK levels, requested and defined permissions, all components (exported or not) with intent filters, the launcher activity and deep links")
+    public Map<String, Object> getManifestInfo(
+            @ToolParam(description = SESSION_DESCRIPTION, required = false) String session) {
+        try {
+            logger.info("Getting manifest info");
+            return analyzer.session(session).getManifestInfo();
+        } catch (Exception e) {
+            logger.severe("Error getting manifest info: " + e.getMessage());
+            return Map.of("error", e.getMessage());
+        }
+    }
+    
     @Tool(name = "get_android_manifest", description = "Get the AndroidManifest.xml content")
-    public String getAndroidManifest() {
+    public String getAndroidManifest(
+            @ToolParam(description = SESSION_DESCRIPTION, required = false) String session) {
         try {
             logger.info("Getting AndroidManifest.xml");
-            return analyzer.getAndroidManifest();
+            return analyzer.session(session).getAndroidManifest();
         } catch (Exception e) {
             logger.severe("Error getting manifest: " + e.getMessage());
             return "Error: " + e.getMessage();
@@ -115,57 +284,140 @@ public class JadxToolService {
     }
     
     @Tool(name = "get_main_activity_class", description = "Get the main launcher activity class name")
-    public String getMainActivityClass() {
+    public String getMainActivityClass(
+            @ToolParam(description = SESSION_DESCRIPTION, required = false) String session) {
         try {
             logger.info("Getting main activity");
-            return analyzer.getMainActivity();
+            return analyzer.session(session).getMainActivity();
         } catch (Exception e) {
             logger.severe("Error getting main activity: " + e.getMessage());
             return "Error: " + e.getMessage();
         }
     }
     
-    @Tool(name = "get_all_resource_file_names", description = "Get list of all resource file names in the APK")
-    public List<String> getAllResourceFileNames() {
+    @Tool(name = "get_all_resource_file_names", description = "Get the sorted list of resource file names in the APK, optionally filtered by directory prefix and/or glob")
+    public List<String> getAllResourceFileNames(
+            @ToolParam(description = "Directory or name prefix, e.g. res/layout/ (default: all)", required = false) String prefix,
+            @ToolParam(description = "Glob on the full name: * within a path segment, ** across segments, ? one character, e.g. res/**/*.xml", required = false) String glob,
+            @ToolParam(description = SESSION_DESCRIPTION, required = false) String session) {
         try {
-            logger.info("Getting all resource file names");
-            return analyzer.getAllResourceFileNames();
+            logger.info("Getting resource file names");
+            return analyzer.session(session).getResourceFileNames(prefix, glob);
         } catch (Exception e) {
             logger.severe("Error getting resource file names: " + e.getMessage());
             return List.of("Error: " + e.getMessage());
         }
     }
     
-    @Tool(name = "get_resource_file", description = "Get the content of a specific resource file")
-    public String getResourceFile(String fileName) {
+    @Tool(name = "get_resource_file", description = "Get the content of a resource file in chunks. Text (including decoded binary XML and resources.arsc) is paged by characters; binary files such as images or .so libraries by bytes, base64-encoded. Pass nextOffset back as offset while hasMore is true")
+    public Map<String, Object> getResourceFile(
+            String fileName,
+            @ToolParam(description = "Start of the chunk: characters for text, bytes for binary files (default 0)", required = false) Long offset,
+            @ToolParam(description = "Chunk size (default 65536, at most 1048576)", required = false) Integer length,
+            @ToolParam(description = SESSION_DESCRIPTION, required = false) String session) {
         try {
             logger.info("Getting resource file: " + fileName);
-            return analyzer.getResourceFile(fileName);
+            return analyzer.session(session).readResource(fileName,
+                offset != null ? offset : 0, length != null ? length : 0);
         } catch (Exception e) {
             logger.severe("Error getting resource file: " + e.getMessage());
-            return "Error: " + e.getMessage();
+            return Map.of("error", e.getMessage());
         }
     }
     
-    @Tool(name = "get_smali_of_class", description = "Get the smali code of a specific class")
-    public String getSmaliOfClass(String className) {
+    @Tool(name = "get_smali_of_class", description = "Get the smali code of a specific class in line-aligned chunks of at most maxChars characters. Pass nextStartLine back as startLine while hasMore is true, or ask for a line range directly")
+    public Map<String, Object> getSmaliOfClass(
+            String className,
+            @ToolParam(description = "First line to return, 1-based (default 1)", required = false) Integer startLine,
+            @ToolParam(description = "Last line to return (default: the end of the class)", required = false) Integer endLine,
+            @ToolParam(description = CHUNK_SIZE_DESCRIPTION, required = false) Integer maxChars,
+            @ToolParam(description = SESSION_DESCRIPTION, required = false) String session) {
         try {
             logger.info("Getting smali for class: " + className);
-            return analyzer.getSmaliOfClass(className);
+            return analyzer.session(session).readSmaliOfClass(className,
+                startLine != null ? startLine : 1, endLine != null ? endLine : 0, maxChars != null ? maxChars : 0);
         } catch (Exception e) {
             logger.severe("Error getting class smali: " + e.getMessage());
-            return "Error: " + e.getMessage();
+            return Map.of("error", e.getMessage());
         }
     }
     
-    @Tool(name = "get_smali_of_method", description = "Get the smali code of a specific method")
-    public String getSmaliOfMethod(String className, String methodName) {
+    @Tool(name = "get_smali_of_method", description = "Get the smali code of a specific method. For overloaded methods pass a descriptor; otherwise the first overload is returned")
+    public String getSmaliOfMethod(
+            String className,
+            String methodName,
+            @ToolParam(description = "JVM descriptor or its prefix to pick an overload, e.g. (Ljava/lang/String;I)V or (I) (default: first overload)", required = false) String descriptor,
+            @ToolParam(description = SESSION_DESCRIPTION, required = false) String session) {
         try {
             logger.info("Getting smali for method: " + className + "." + methodName);
-            return analyzer.getSmaliOfMethod(className, methodName);
+            return analyzer.session(session).getSmaliOfMethod(className, methodName, descriptor);
         } catch (Exception e) {
             logger.severe("Error getting method smali: " + e.getMessage());
             return "Error: " + e.getMessage();
         }
     }
+    
+    @Tool(name = "get_method_overloads", description = "List the JVM descriptors of every overload of a method, to pass to get_method_by_name or get_smali_of_method")
+    public List<String> getMethodOverloads(
+            String className,
+            String methodName,
+            @ToolParam(description = SESSION_DESCRIPTION, required = false) String session) {
+        try {
+            logger.info("Getting overloads for method: " + className + "." + methodName);
+            return analyzer.session(session).getMethodOverloads(className, methodName);
+        } catch (Exception e) {
+            logger.severe("Error getting method overloads: " + e.getMessage());
+            return List.of("Error: " + e.getMessage());
+        }
+    }
+    
+    @Tool(name = "get_cache_stats", description = "Get decompiled code cache statistics: budget, bytes in use, cached classes, hits, misses and evictions, plus the decoded resource cache")
+    public Map<String, Object> getCacheStats(
+            @ToolParam(description = SESSION_DESCRIPTION, required = false) String session) {
+        try {
+            logger.info("Getting cache stats");
+            return analyzer.session(session).getCacheStats();
+        } catch (Exception e) {
+            logger.severe("Error getting cache stats: " + e.getMessage());
+            return Map.of("error", e.getMessage());
+        }
+    }
+    
+    @Tool(name = "list_sessions", description = "List loaded APK sessions (most recently used first) with their session ids")
+    public List<Map<String, Object>> listSessions() {
+        logger.info("Listing sessions");
+        return analyzer.listSessions();
+    }
+    
+    @Tool(name = "close_session", description = "Close a loaded APK session and free its memory")
+    public String closeSession(@ToolParam(description = "Session id to close") String session) {
+        try {
+            logger.info("Closing session: " + session);
+            analyzer.closeSession(session);
+            return "Session closed: " + session;
+        } catch (Exception e) {
+            logger.severe("Error closing session: " + e.getMessage());
+            return "Error: " + e.getMessage();
+        }
+    }
+    
+    /**
+     * Deadline of one tool call; created on the calling thread, so interrupting that thread
+     * stops the work as well
+     */
+    private static Deadline deadline(Integer timeoutSeconds) {
+        return Deadline.after(timeoutSeconds != null ? timeoutSeconds * 1000L : 0);
+    }
+    
+    private static List<String> splitList(String value) {
+        List<String> items = new ArrayList<>();
+        if (value != null) {
+            for (String item : value.split(",")) {
+                if (!item.trim().isEmpty()) {
+                    items.add(item.trim());
+                }
+            }
+        }
+        return items;
+    }
 }
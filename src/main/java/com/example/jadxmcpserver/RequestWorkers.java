@@ -0,0 +1,49 @@
+package com.example.jadxmcpserver;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request Workers - Bounded pool that runs long REST requests (code search, class batches)
+ * One thread per CPU, so concurrent clients cannot turn into an unbounded number of
+ * decompiling threads; a few requests per thread may wait in the queue, and beyond that
+ * submit() rejects and the controller answers 503. Closed by Spring on shutdown.
+ */
+@Component
+public class RequestWorkers implements AutoCloseable {
+
+    private static final int QUEUED_PER_THREAD = 16;
+
+    private final ThreadPoolExecutor executor;
+
+    public RequestWorkers() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors()),
+            Math.max(1, Runtime.getRuntime().availableProcessors()) * QUEUED_PER_THREAD);
+    }
+
+    RequestWorkers(int threads, int queueCapacity) {
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "jadx-request");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    /**
+     * Queue a request; throws RejectedExecutionException when every thread is busy and the queue is full
+     */
+    public <T> Future<T> submit(Callable<T> task) {
+        return executor.submit(task);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -170,6 +170,7 @@ public class JadxApkAnalyzerCLI {
         Map<String, List<ExportedComponent>> grouped = analyzer.getExportedComponentsByType();
         
         printComponentsByType(grouped, "activity", "ACTIVITIES");
+        printComponentsByType(grouped, "activity-alias", "ACTIVITY ALIASES");
         printComponentsByType(grouped, "service", "SERVICES");
         printComponentsByType(grouped, "receiver", "BROADCAST RECEIVERS");
         printComponentsByType(grouped, "provider", "CONTENT PROVIDERS");
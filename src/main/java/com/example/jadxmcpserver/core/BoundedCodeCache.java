@@ -0,0 +1,258 @@
+package com.example.jadxmcpserver.core;
+
+import jadx.api.ICodeCache;
+import jadx.api.ICodeInfo;
+import jadx.api.impl.SimpleCodeInfo;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Bounded Code Cache - Size-weighted LRU replacement for JADX's in-memory code cache
+ * JADX unloads a class's instructions after generating its code, so the code cache is
+ * what grows with every class touched. This cache keeps decompiled code up to a byte
+ * budget and evicts least-recently-used classes beyond it; JADX re-decompiles an
+ * evicted class on its next access because the lookup simply misses.
+ * Weights are estimated from the code length and the number of metadata annotations.
+ * Each entry also keeps the class's MethodOffsetTable and LineIndex, built once when the
+ * code is added.
+ * Indexed smali of classes shares the same budget and LRU order, under its own keys.
+ *
+ * An optional DiskCodeCache acts as a second tier: newly generated code and its method
+ * table are written through to it, and memory misses are served from it before JADX
+ * decompiles. Code read back from disk carries no metadata annotations, only the table.
+ */
+public class BoundedCodeCache implements ICodeCache {
+
+    // Rough per-object overheads used for weights (64-bit JVM, compressed oops)
+    private static final int ENTRY_OVERHEAD = 96;
+    private static final int ANNOTATION_OVERHEAD = 64;
+    // Dex class names cannot contain ':', so smali keys never collide with code keys
+    private static final String SMALI_KEY_PREFIX = "smali:";
+
+    private long maxBytes;
+    private final DiskCodeCache diskCache;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long currentBytes;
+    private int smaliEntries;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    private static class Entry {
+        final ICodeInfo codeInfo;
+        final MethodOffsetTable methods;
+        final LineIndex lines;
+        final SmaliMethodIndex smali;
+        final long weight;
+
+        Entry(ICodeInfo codeInfo, MethodOffsetTable methods, LineIndex lines, SmaliMethodIndex smali, long weight) {
+            this.codeInfo = codeInfo;
+            this.methods = methods;
+            this.lines = lines;
+            this.smali = smali;
+            this.weight = weight;
+        }
+    }
+
+    public BoundedCodeCache(long maxBytes) {
+        this(maxBytes, null);
+    }
+
+    public BoundedCodeCache(long maxBytes, DiskCodeCache diskCache) {
+        this.maxBytes = maxBytes;
+        this.diskCache = diskCache;
+    }
+
+    @Override
+    public void add(String clsFullName, ICodeInfo codeInfo) {
+        MethodOffsetTable methods = MethodOffsetTable.build(codeInfo);
+        if (diskCache != null) {
+            if (methods != null) {
+                diskCache.put(DiskCodeCache.Kind.METHODS, clsFullName, methods.serialize());
+            }
+            diskCache.put(DiskCodeCache.Kind.CODE, clsFullName, codeInfo.getCodeStr());
+        }
+        addToMemory(clsFullName, codeInfo, methods);
+    }
+
+    private void addToMemory(String clsFullName, ICodeInfo codeInfo, MethodOffsetTable methods) {
+        LineIndex lines = LineIndex.build(codeInfo.getCodeStr());
+        long weight = weigh(codeInfo) + lines.getEstimatedBytes() + (methods != null ? methods.getEstimatedBytes() : 0);
+        put(clsFullName, new Entry(codeInfo, methods, lines, null, weight));
+    }
+
+    /**
+     * Keep the indexed smali of a class in memory
+     */
+    public void addSmali(String clsFullName, SmaliMethodIndex smali) {
+        put(SMALI_KEY_PREFIX + clsFullName, new Entry(null, null, null, smali, smali.getEstimatedBytes()));
+    }
+
+    /**
+     * Get the indexed smali of a class, or null if it is not in memory
+     */
+    public synchronized SmaliMethodIndex getSmali(String clsFullName) {
+        Entry entry = entries.get(SMALI_KEY_PREFIX + clsFullName);
+        return entry != null ? entry.smali : null;
+    }
+
+    private synchronized void put(String key, Entry entry) {
+        remove(key);
+        if (entry.weight > maxBytes) {
+            // Larger than the whole budget; serve it once and keep nothing
+            evictions++;
+            return;
+        }
+        entries.put(key, entry);
+        currentBytes += entry.weight;
+        if (entry.smali != null) {
+            smaliEntries++;
+        }
+        evictToBudget();
+    }
+
+    /**
+     * Change the byte budget, evicting least-recently-used entries if it shrank
+     */
+    public synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        evictToBudget();
+    }
+
+    private void evictToBudget() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (currentBytes > maxBytes && it.hasNext()) {
+            Entry evicted = it.next();
+            currentBytes -= evicted.weight;
+            if (evicted.smali != null) {
+                smaliEntries--;
+            }
+            it.remove();
+            evictions++;
+        }
+    }
+
+    @Override
+    public synchronized void remove(String clsFullName) {
+        Entry entry = entries.remove(clsFullName);
+        if (entry != null) {
+            currentBytes -= entry.weight;
+            if (entry.smali != null) {
+                smaliEntries--;
+            }
+        }
+    }
+
+    @Override
+    public ICodeInfo get(String clsFullName) {
+        ICodeInfo codeInfo = getFromMemory(clsFullName);
+        if (codeInfo != ICodeInfo.EMPTY || diskCache == null) {
+            return codeInfo;
+        }
+        // Disk reads happen outside this cache's lock
+        String code = diskCache.get(DiskCodeCache.Kind.CODE, clsFullName);
+        if (code == null) {
+            return ICodeInfo.EMPTY;
+        }
+        codeInfo = new SimpleCodeInfo(code);
+        String methods = diskCache.get(DiskCodeCache.Kind.METHODS, clsFullName);
+        addToMemory(clsFullName, codeInfo, methods != null ? MethodOffsetTable.parse(methods, code) : null);
+        return codeInfo;
+    }
+
+    /**
+     * Get the method offset table of a cached class, or null if the class is not in
+     * memory or its code came from a disk cache entry without one
+     */
+    public synchronized MethodOffsetTable getMethodOffsets(String clsFullName) {
+        Entry entry = entries.get(clsFullName);
+        return entry != null ? entry.methods : null;
+    }
+
+    /**
+     * Get the line index of a cached class's code, or null if the class is not in memory
+     */
+    public synchronized LineIndex getLineIndex(String clsFullName) {
+        Entry entry = entries.get(clsFullName);
+        return entry != null ? entry.lines : null;
+    }
+
+    private synchronized ICodeInfo getFromMemory(String clsFullName) {
+        Entry entry = entries.get(clsFullName);
+        if (entry == null) {
+            // JADX treats EMPTY, not null, as a miss and decompiles again
+            misses++;
+            return ICodeInfo.EMPTY;
+        }
+        hits++;
+        return entry.codeInfo;
+    }
+
+    @Override
+    public String getCode(String clsFullName) {
+        ICodeInfo codeInfo = get(clsFullName);
+        return codeInfo != ICodeInfo.EMPTY ? codeInfo.getCodeStr() : null;
+    }
+
+    @Override
+    public boolean contains(String clsFullName) {
+        synchronized (this) {
+            if (entries.containsKey(clsFullName)) {
+                return true;
+            }
+        }
+        return diskCache != null && diskCache.contains(DiskCodeCache.Kind.CODE, clsFullName);
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            entries.clear();
+            currentBytes = 0;
+            smaliEntries = 0;
+        }
+        if (diskCache != null) {
+            diskCache.close();
+        }
+    }
+
+    /**
+     * Get the persistent tier, or null if disabled
+     */
+    public DiskCodeCache getDiskCache() {
+        return diskCache;
+    }
+
+    /**
+     * Get cache counters and occupancy
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("maxBytes", maxBytes);
+        stats.put("currentBytes", currentBytes);
+        stats.put("cachedClasses", entries.size() - smaliEntries);
+        stats.put("cachedSmali", smaliEntries);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("evictions", evictions);
+        long lookups = hits + misses;
+        stats.put("hitRate", lookups > 0 ? (double) hits / lookups : 0.0);
+        if (diskCache != null) {
+            stats.put("disk", diskCache.getStats());
+        }
+        return stats;
+    }
+
+    public synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    private static long weigh(ICodeInfo codeInfo) {
+        long weight = ENTRY_OVERHEAD + 2L * codeInfo.getCodeStr().length();
+        if (codeInfo.hasMetadata()) {
+            weight += (long) ANNOTATION_OVERHEAD * codeInfo.getCodeMetadata().getAsMap().size();
+        }
+        return weight;
+    }
+}
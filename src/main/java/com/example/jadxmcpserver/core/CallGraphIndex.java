@@ -0,0 +1,322 @@
+package com.example.jadxmcpserver.core;
+
+import com.example.jadxmcpserver.model.CallGraphNode;
+import jadx.api.plugins.input.data.ICodeReader;
+import jadx.api.plugins.input.data.IMethodRef;
+import jadx.api.plugins.input.insns.InsnData;
+import jadx.api.plugins.input.insns.InsnIndexType;
+import jadx.api.plugins.input.insns.custom.ICustomPayload;
+import jadx.core.dex.info.MethodInfo;
+import jadx.core.dex.nodes.ClassNode;
+import jadx.core.dex.nodes.MethodNode;
+import jadx.core.dex.nodes.RootNode;
+
+import java.util.*;
+
+/**
+ * Call Graph Index - Whole-program call edges read from bytecode
+ * Every invoke instruction of every method is visited once, without decompiling,
+ * and recorded as a caller -> callee edge between exact method descriptors.
+ * Callees include framework methods (e.g. WebView.loadUrl) that have no code in the APK.
+ *
+ * Storage is compact and read-only after build:
+ * - each method gets a dense int id; its class, name and descriptor are ids into a shared string table
+ * - forward (callees) and reverse (callers) edges are compressed-sparse-row int arrays
+ * - a name -> method ids table, also CSR, resolves lookups by method name
+ * CallGraphNode objects are only created for the methods a query actually returns.
+ */
+public class CallGraphIndex {
+
+    private final String[] strings;
+    private final Map<String, Integer> stringIds;
+
+    private final int[] methodClass;
+    private final int[] methodName;
+    private final int[] methodDescriptor;
+
+    private final int[] calleeOffsets;
+    private final int[] callees;
+    private final int[] callerOffsets;
+    private final int[] callers;
+
+    private final int[] nameOffsets;
+    private final int[] methodsByName;
+
+    private final long buildTimeMs;
+
+    private CallGraphIndex(Builder builder, long[] edges, long buildTimeMs) {
+        this.strings = builder.strings.toArray(new String[0]);
+        this.stringIds = builder.stringIds;
+        this.methodClass = builder.methodClass.toArray();
+        this.methodName = builder.methodName.toArray();
+        this.methodDescriptor = builder.methodDescriptor.toArray();
+
+        int methodCount = methodClass.length;
+        this.calleeOffsets = new int[methodCount + 1];
+        this.callees = new int[edges.length];
+        this.callerOffsets = new int[methodCount + 1];
+        this.callers = new int[edges.length];
+
+        // Edges are sorted by (caller, callee), so forward targets can be written in order
+        for (int i = 0; i < edges.length; i++) {
+            int caller = (int) (edges[i] >>> 32);
+            int callee = (int) edges[i];
+            calleeOffsets[caller + 1]++;
+            callerOffsets[callee + 1]++;
+            callees[i] = callee;
+        }
+        prefixSum(calleeOffsets);
+        prefixSum(callerOffsets);
+
+        int[] cursor = Arrays.copyOf(callerOffsets, methodCount);
+        for (long edge : edges) {
+            int callee = (int) edge;
+            callers[cursor[callee]++] = (int) (edge >>> 32);
+        }
+
+        this.nameOffsets = new int[strings.length + 1];
+        this.methodsByName = new int[methodCount];
+        for (int id = 0; id < methodCount; id++) {
+            nameOffsets[methodName[id] + 1]++;
+        }
+        prefixSum(nameOffsets);
+        int[] nameCursor = Arrays.copyOf(nameOffsets, strings.length);
+        for (int id = 0; id < methodCount; id++) {
+            methodsByName[nameCursor[methodName[id]]++] = id;
+        }
+
+        this.buildTimeMs = buildTimeMs;
+    }
+
+    /**
+     * Build the index by scanning the invoke instructions of all classes (including inner classes)
+     */
+    public static CallGraphIndex build(RootNode root) {
+        long start = System.nanoTime();
+        Builder builder = new Builder();
+
+        for (ClassNode cls : root.getClasses()) {
+            for (MethodNode mth : cls.getMethods()) {
+                int caller = builder.methodId(mth.getMethodInfo());
+
+                ICodeReader codeReader = mth.getCodeReader();
+                if (codeReader == null) {
+                    continue;
+                }
+
+                codeReader.visitInstructions(insn -> {
+                    MethodInfo callee = resolveInvokeTarget(root, insn);
+                    if (callee != null) {
+                        builder.addEdge(caller, builder.methodId(callee));
+                    }
+                });
+            }
+        }
+
+        long[] edges = builder.sortedUniqueEdges();
+        long buildTimeMs = (System.nanoTime() - start) / 1_000_000;
+        return new CallGraphIndex(builder, edges, buildTimeMs);
+    }
+
+    /**
+     * Find ids of methods matching a target expression. Accepted forms:
+     * - method name: loadUrl
+     * - qualified name: WebView.loadUrl, android.webkit.WebView.loadUrl
+     * - with descriptor: WebView.loadUrl(Ljava/lang/String;)V
+     */
+    public int[] findMethods(String target) {
+        int paren = target.indexOf('(');
+        String namePart = paren != -1 ? target.substring(0, paren) : target;
+        String name = namePart.substring(namePart.lastIndexOf('.') + 1);
+
+        Integer nameId = stringIds.get(name);
+        if (nameId == null) {
+            return new int[0];
+        }
+
+        int[] matches = new int[nameOffsets[nameId + 1] - nameOffsets[nameId]];
+        int count = 0;
+        for (int i = nameOffsets[nameId]; i < nameOffsets[nameId + 1]; i++) {
+            int id = methodsByName[i];
+            String fullName = strings[methodClass[id]] + "." + name;
+            boolean matched;
+            if (paren != -1) {
+                String descriptor = strings[methodDescriptor[id]];
+                String fullSignature = fullName + descriptor;
+                matched = fullSignature.equals(target) || fullSignature.endsWith("." + target)
+                        || (name + descriptor).equals(target);
+            } else {
+                matched = namePart.equals(name) || fullName.equals(namePart) || fullName.endsWith("." + namePart);
+            }
+            if (matched) {
+                matches[count++] = id;
+            }
+        }
+
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Get ids of the methods containing an invoke of the given method
+     */
+    public int[] getCallers(int id) {
+        return Arrays.copyOfRange(callers, callerOffsets[id], callerOffsets[id + 1]);
+    }
+
+    /**
+     * Get ids of the methods invoked by the given method
+     */
+    public int[] getCallees(int id) {
+        return Arrays.copyOfRange(callees, calleeOffsets[id], calleeOffsets[id + 1]);
+    }
+
+    public int getCallerCount(int id) {
+        return callerOffsets[id + 1] - callerOffsets[id];
+    }
+
+    public int getCalleeCount(int id) {
+        return calleeOffsets[id + 1] - calleeOffsets[id];
+    }
+
+    /**
+     * Get all distinct method names known to the index
+     */
+    public Set<String> getMethodNames() {
+        Set<String> names = new HashSet<>();
+        for (int nameId = 0; nameId < strings.length; nameId++) {
+            if (nameOffsets[nameId + 1] > nameOffsets[nameId]) {
+                names.add(strings[nameId]);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Create the API-facing node for a method id
+     */
+    public CallGraphNode toNode(int id) {
+        return new CallGraphNode(strings[methodClass[id]], strings[methodName[id]], strings[methodDescriptor[id]]);
+    }
+
+    public int getMethodCount() {
+        return methodClass.length;
+    }
+
+    public int getEdgeCount() {
+        return callees.length;
+    }
+
+    public long getBuildTimeMs() {
+        return buildTimeMs;
+    }
+
+    /**
+     * Approximate heap held by the index: int arrays plus the string table
+     */
+    public long getEstimatedBytes() {
+        long bytes = 4L * (methodClass.length * 3L + calleeOffsets.length + callees.length
+                + callerOffsets.length + callers.length + nameOffsets.length + methodsByName.length);
+        for (String s : strings) {
+            bytes += 40 + 2L * s.length() + 48; // string + its lookup entry
+        }
+        return bytes;
+    }
+
+    private static void prefixSum(int[] offsets) {
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+    }
+
+    private static MethodInfo resolveInvokeTarget(RootNode root, InsnData insn) {
+        if (insn.getIndexType() != InsnIndexType.METHOD_REF) {
+            return null;
+        }
+        try {
+            insn.decode();
+            IMethodRef methodRef;
+            ICustomPayload payload = insn.getPayload();
+            if (payload instanceof IMethodRef) {
+                methodRef = (IMethodRef) payload;
+            } else {
+                methodRef = insn.getIndexAsMethod();
+            }
+            return methodRef != null ? MethodInfo.fromRef(root, methodRef) : null;
+        } catch (Exception e) {
+            // Skip malformed or unresolvable references
+            return null;
+        }
+    }
+
+    /**
+     * Mutable state used only while scanning; discarded once the arrays are built
+     */
+    private static class Builder {
+        final List<String> strings = new ArrayList<>();
+        final Map<String, Integer> stringIds = new HashMap<>();
+        final Map<MethodInfo, Integer> methodIds = new HashMap<>();
+        final IntList methodClass = new IntList();
+        final IntList methodName = new IntList();
+        final IntList methodDescriptor = new IntList();
+        long[] edges = new long[1024];
+        int edgeCount;
+
+        int methodId(MethodInfo method) {
+            Integer id = methodIds.get(method);
+            if (id == null) {
+                id = methodIds.size();
+                methodIds.put(method, id);
+                String shortId = method.getShortId();
+                methodClass.add(stringId(method.getDeclClass().getAliasFullName()));
+                methodName.add(stringId(method.getAlias()));
+                methodDescriptor.add(stringId(shortId.substring(shortId.indexOf('('))));
+            }
+            return id;
+        }
+
+        int stringId(String s) {
+            Integer id = stringIds.get(s);
+            if (id == null) {
+                id = strings.size();
+                strings.add(s);
+                stringIds.put(s, id);
+            }
+            return id;
+        }
+
+        void addEdge(int caller, int callee) {
+            if (edgeCount == edges.length) {
+                edges = Arrays.copyOf(edges, edges.length * 2);
+            }
+            edges[edgeCount++] = ((long) caller << 32) | (callee & 0xFFFFFFFFL);
+        }
+
+        long[] sortedUniqueEdges() {
+            long[] sorted = Arrays.copyOf(edges, edgeCount);
+            Arrays.sort(sorted);
+            int unique = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[unique++] = sorted[i];
+                }
+            }
+            return Arrays.copyOf(sorted, unique);
+        }
+    }
+
+    private static class IntList {
+        int[] values = new int[1024];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
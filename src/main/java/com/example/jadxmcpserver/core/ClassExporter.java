@@ -0,0 +1,180 @@
+package com.example.jadxmcpserver.core;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Class Exporter - Decompiles many classes on a worker pool and hands them out in order
+ * Classes are submitted through a sliding window: at most WINDOW_PER_THREAD classes per
+ * worker are decompiled ahead of the consumer, and the next class is submitted only once
+ * the oldest one has been consumed. A slow consumer (such as a socket) therefore stalls
+ * decompilation instead of letting finished classes pile up in memory, and records come
+ * out in the order of the given names whichever worker finishes first.
+ * Only the requested parts of each class are produced; members come from the symbol
+ * registry and cost nothing, source and smali are decompiled or taken from the caches.
+ * An export stops early, with the records handed out so far, once its Deadline expires.
+ */
+public class ClassExporter {
+
+    private static final int WINDOW_PER_THREAD = 4;
+    // How often a wait for the next class looks at the deadline
+    private static final long DEADLINE_POLL_MS = 50;
+
+    /**
+     * Parts of a class that can be exported
+     */
+    public enum Part {
+        SOURCE, SMALI, METHODS, FIELDS
+    }
+
+    /**
+     * One exported class. Parts that were not requested are null, and so is smali when it
+     * is not available; error is set instead of the parts when the class could not be exported.
+     */
+    public static class Record {
+        public final String className;
+        public final String source;
+        public final String smali;
+        public final List<String> methods;
+        public final List<String> fields;
+        public final String error;
+
+        Record(String className, String source, String smali, List<String> methods, List<String> fields, String error) {
+            this.className = className;
+            this.source = source;
+            this.smali = smali;
+            this.methods = methods;
+            this.fields = fields;
+            this.error = error;
+        }
+
+        static Record failed(String className, String error) {
+            return new Record(className, null, null, null, null, error);
+        }
+    }
+
+    /**
+     * Receives records in order; returning false or throwing an IOException stops the export
+     */
+    public interface Sink {
+        boolean accept(Record record) throws IOException;
+    }
+
+    private final JadxAnalyzerCore core;
+    private final int threads;
+
+    public ClassExporter(JadxAnalyzerCore core, int threads) {
+        this.core = core;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Export the given parts of classes in the given order; returns the number of records
+     * accepted. Workers are stopped when the sink stops or fails, or the thread is interrupted.
+     */
+    public int export(List<String> classNames, Set<Part> parts, Sink sink) throws IOException {
+        return export(classNames, parts, Deadline.none(), sink);
+    }
+
+    /**
+     * Export as above, stopping once the deadline expires; the caller can tell from the
+     * deadline whether fewer records than classes were accepted because of it
+     */
+    public int export(List<String> classNames, Set<Part> parts, Deadline deadline, Sink sink) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "jadx-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Deque<Future<Record>> inFlight = new ArrayDeque<>();
+        int window = threads * WINDOW_PER_THREAD;
+        int next = 0;
+        int accepted = 0;
+        try {
+            while (next < classNames.size() || !inFlight.isEmpty()) {
+                while (next < classNames.size() && inFlight.size() < window) {
+                    String className = classNames.get(next++);
+                    inFlight.add(executor.submit(() -> export(className, parts, deadline)));
+                }
+                Record record = await(inFlight.peek(), deadline);
+                if (record == null) {
+                    break;
+                }
+                inFlight.poll();
+                if (!sink.accept(record)) {
+                    break;
+                }
+                accepted++;
+            }
+            return accepted;
+        } finally {
+            for (Future<Record> pending : inFlight) {
+                pending.cancel(true);
+            }
+            executor.shutdownNow();
+        }
+    }
+
+    private Record export(String className, Set<Part> parts, Deadline deadline) {
+        if (deadline.isExpired()) {
+            // Never handed out; the consumer has stopped waiting
+            return null;
+        }
+        if (!core.hasClass(className)) {
+            return Record.failed(className, "Class not found: " + className);
+        }
+        try {
+            String source = null;
+            if (parts.contains(Part.SOURCE)) {
+                source = core.getClassSource(className);
+                if (source == null) {
+                    return Record.failed(className, "Class could not be decompiled: " + className);
+                }
+            }
+            String smali = null;
+            if (parts.contains(Part.SMALI)) {
+                try {
+                    smali = core.getSmaliOfClass(className);
+                } catch (RuntimeException e) {
+                    // Smali is best-effort; the other parts are still worth exporting
+                }
+            }
+            return new Record(className, source, smali,
+                parts.contains(Part.METHODS) ? core.getMethodsOfClass(className) : null,
+                parts.contains(Part.FIELDS) ? core.getFieldsOfClass(className) : null,
+                null);
+        } catch (RuntimeException e) {
+            return Record.failed(className, String.valueOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * Wait for a record; null once the deadline expires (or the thread is interrupted) first
+     */
+    private static Record await(Future<Record> future, Deadline deadline) throws IOException {
+        try {
+            while (!deadline.isExpired()) {
+                try {
+                    return future.get(Math.min(DEADLINE_POLL_MS, deadline.getRemainingMs() + 1), TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // Look at the deadline again
+                }
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw new IOException("Export failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package com.example.jadxmcpserver.core;
+
+import java.util.*;
+
+/**
+ * Code Search Index - Trigram inverted index over decompiled class sources
+ * Classes are added incrementally as they are decompiled. A query is answered by
+ * intersecting the posting lists of the trigrams its literal parts require, so only
+ * the surviving candidate classes need to be scanned for real matches.
+ * Trigrams are taken from lower-cased text, so candidates are a superset for
+ * case-sensitive and case-insensitive queries alike.
+ */
+public class CodeSearchIndex {
+
+    private final Map<String, Integer> documentIds = new HashMap<>();
+    private final List<String> documentNames = new ArrayList<>();
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private long postingCount;
+
+    /**
+     * Index a document (class source). Documents already indexed are ignored.
+     */
+    public void add(String name, String text) {
+        // Extract outside the lock; this is the expensive part
+        long[] trigrams = extractTrigrams(text);
+
+        synchronized (this) {
+            if (documentIds.containsKey(name)) {
+                return;
+            }
+            int id = documentNames.size();
+            documentNames.add(name);
+            documentIds.put(name, id);
+
+            // Ids only grow, so every posting list stays sorted
+            for (long trigram : trigrams) {
+                postings.computeIfAbsent(trigram, k -> new IntList()).add(id);
+            }
+            postingCount += trigrams.length;
+        }
+    }
+
+    public synchronized boolean contains(String name) {
+        return documentIds.containsKey(name);
+    }
+
+    /**
+     * Get the documents that may contain every one of the given literals.
+     * Literals shorter than three characters cannot be filtered and are ignored;
+     * if nothing can be filtered, all indexed documents are returned.
+     */
+    public synchronized List<String> getCandidates(Collection<String> requiredLiterals) {
+        Set<Long> trigrams = new HashSet<>();
+        for (String literal : requiredLiterals) {
+            for (long trigram : extractTrigrams(literal)) {
+                trigrams.add(trigram);
+            }
+        }
+
+        if (trigrams.isEmpty()) {
+            return new ArrayList<>(documentNames);
+        }
+
+        List<IntList> lists = new ArrayList<>(trigrams.size());
+        for (long trigram : trigrams) {
+            IntList list = postings.get(trigram);
+            if (list == null) {
+                return new ArrayList<>();
+            }
+            lists.add(list);
+        }
+
+        // Intersect starting from the rarest trigram
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        int[] result = Arrays.copyOf(lists.get(0).values, lists.get(0).size);
+        int resultSize = result.length;
+        for (int i = 1; i < lists.size() && resultSize > 0; i++) {
+            resultSize = intersect(result, resultSize, lists.get(i));
+        }
+
+        List<String> candidates = new ArrayList<>(resultSize);
+        for (int i = 0; i < resultSize; i++) {
+            candidates.add(documentNames.get(result[i]));
+        }
+        return candidates;
+    }
+
+    public synchronized int getDocumentCount() {
+        return documentNames.size();
+    }
+
+    public synchronized int getTrigramCount() {
+        return postings.size();
+    }
+
+    public synchronized long getPostingCount() {
+        return postingCount;
+    }
+
+    /**
+     * Approximate heap held by the index (posting arrays and map entries)
+     */
+    public synchronized long getEstimatedBytes() {
+        long bytes = postingCount * 4L + postings.size() * 96L;
+        for (String name : documentNames) {
+            bytes += 40 + 2L * name.length() + 48;
+        }
+        return bytes;
+    }
+
+    /**
+     * Get the literal substrings every match of a query must contain.
+     * For plain queries this is the query itself. For regular expressions only
+     * unconditional literal runs outside groups and character classes are kept;
+     * a top-level alternation makes nothing mandatory. Escapes other than quoted
+     * punctuation end a run together with their arguments ({@code \x41}, {@code \p{Lu}}),
+     * and a pattern in comments mode ((?x)) is not prefiltered at all.
+     */
+    public static List<String> getRequiredLiterals(String query, boolean regex) {
+        List<String> literals = new ArrayList<>();
+        if (!regex) {
+            literals.add(query);
+            return literals;
+        }
+        if (query.indexOf('|') >= 0 || hasCommentsFlag(query)) {
+            return literals;
+        }
+
+        StringBuilder run = new StringBuilder();
+        int depth = 0;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            switch (c) {
+                case '\\':
+                    if (i + 1 < query.length()) {
+                        char escaped = query.charAt(++i);
+                        if (escaped == 'Q') {
+                            int end = query.indexOf("\\E", i + 1);
+                            int stop = end != -1 ? end : query.length();
+                            if (depth == 0) {
+                                run.append(query, i + 1, stop);
+                            }
+                            i = end != -1 ? end + 1 : query.length();
+                        } else if (depth == 0 && !Character.isLetterOrDigit(escaped)) {
+                            run.append(escaped);
+                        } else {
+                            flush(run, literals);
+                            i = skipEscapeArgument(query, i);
+                        }
+                    }
+                    break;
+                case '(':
+                    depth++;
+                    flush(run, literals);
+                    break;
+                case ')':
+                    depth--;
+                    flush(run, literals);
+                    break;
+                case '[':
+                    flush(run, literals);
+                    i = skipCharacterClass(query, i);
+                    break;
+                case '?':
+                case '*':
+                case '{':
+                    // The preceding character is optional
+                    if (run.length() > 0) {
+                        run.setLength(run.length() - 1);
+                    }
+                    flush(run, literals);
+                    if (c == '{') {
+                        int close = query.indexOf('}', i);
+                        i = close != -1 ? close : query.length();
+                    }
+                    break;
+                case '+':
+                case '.':
+                case '^':
+                case '$':
+                    flush(run, literals);
+                    break;
+                default:
+                    if (depth == 0) {
+                        run.append(c);
+                    }
+                    break;
+            }
+        }
+        flush(run, literals);
+        return literals;
+    }
+
+    /**
+     * Whether an inline flag group turns on comments mode, where whitespace and
+     * #-comments in the pattern are not part of what it matches
+     */
+    private static boolean hasCommentsFlag(String regex) {
+        for (int i = regex.indexOf("(?"); i != -1; i = regex.indexOf("(?", i + 2)) {
+            if (i > 0 && regex.charAt(i - 1) == '\\') {
+                continue;
+            }
+            for (int j = i + 2; j < regex.length(); j++) {
+                char flag = regex.charAt(j);
+                if (flag == 'x') {
+                    return true;
+                }
+                if (!Character.isLetter(flag) && flag != '-') {
+                    break;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Skip the argument of a letter or digit escape (the 41 of {@code \x41}, the {Lu} of
+     * {@code \p{Lu}}); returns the index of the escape's last character
+     */
+    private static int skipEscapeArgument(String regex, int escapeIndex) {
+        char escaped = regex.charAt(escapeIndex);
+        int i = escapeIndex + 1;
+        switch (escaped) {
+            case 'x':
+                if (i < regex.length() && regex.charAt(i) == '{') {
+                    return closingIndex(regex, i, '}');
+                }
+                return Math.min(escapeIndex + 2, regex.length() - 1);
+            case 'u':
+                return Math.min(escapeIndex + 4, regex.length() - 1);
+            case '0':
+                while (i < regex.length() && i - escapeIndex <= 3 && regex.charAt(i) >= '0' && regex.charAt(i) <= '7') {
+                    i++;
+                }
+                return i - 1;
+            case 'c':
+                return Math.min(i, regex.length() - 1);
+            case 'k':
+                if (i < regex.length() && regex.charAt(i) == '<') {
+                    return closingIndex(regex, i, '>');
+                }
+                return escapeIndex;
+            case 'p':
+            case 'P':
+            case 'N':
+            case 'b':
+                if (i < regex.length() && regex.charAt(i) == '{') {
+                    return closingIndex(regex, i, '}');
+                }
+                return escaped == 'b' ? escapeIndex : Math.min(i, regex.length() - 1);
+            default:
+                // Back references take as many digits as there are groups
+                while (Character.isDigit(escaped) && i < regex.length() && Character.isDigit(regex.charAt(i))) {
+                    i++;
+                }
+                return i - 1;
+        }
+    }
+
+    private static int closingIndex(String regex, int open, char close) {
+        int index = regex.indexOf(close, open);
+        return index != -1 ? index : regex.length() - 1;
+    }
+
+    private static void flush(StringBuilder run, List<String> literals) {
+        if (run.length() >= 3) {
+            literals.add(run.toString());
+        }
+        run.setLength(0);
+    }
+
+    /**
+     * Skip a character class, including nested classes and intersections ([a[bc]], [a&&[^b]]);
+     * returns the index of its closing bracket
+     */
+    private static int skipCharacterClass(String regex, int start) {
+        int depth = 0;
+        int i = start;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '[') {
+                depth++;
+                i++;
+                // A ']' right after the opening bracket (or its '^') is a literal member
+                if (i < regex.length() && regex.charAt(i) == '^') {
+                    i++;
+                }
+                if (i < regex.length() && regex.charAt(i) == ']') {
+                    i++;
+                }
+                continue;
+            }
+            if (c == ']' && --depth == 0) {
+                return i;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static long[] extractTrigrams(String text) {
+        int length = text.length();
+        if (length < 3) {
+            return new long[0];
+        }
+
+        long[] trigrams = new long[length - 2];
+        char c0 = Character.toLowerCase(text.charAt(0));
+        char c1 = Character.toLowerCase(text.charAt(1));
+        for (int i = 2; i < length; i++) {
+            char c2 = Character.toLowerCase(text.charAt(i));
+            trigrams[i - 2] = ((long) c0 << 32) | ((long) c1 << 16) | c2;
+            c0 = c1;
+            c1 = c2;
+        }
+
+        Arrays.sort(trigrams);
+        int unique = 0;
+        for (int i = 0; i < trigrams.length; i++) {
+            if (i == 0 || trigrams[i] != trigrams[i - 1]) {
+                trigrams[unique++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, unique);
+    }
+
+    /**
+     * Intersect a sorted id array in place with a sorted posting list
+     */
+    private static int intersect(int[] ids, int size, IntList list) {
+        int out = 0;
+        int j = 0;
+        for (int i = 0; i < size && j < list.size; i++) {
+            while (j < list.size && list.values[j] < ids[i]) {
+                j++;
+            }
+            if (j < list.size && list.values[j] == ids[i]) {
+                ids[out++] = ids[i];
+            }
+        }
+        return out;
+    }
+
+    private static class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.jadxmcpserver.core;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline - Time budget and cancellation token of one long-running request
+ * Long operations poll isExpired() between units of work (a class, a call graph method)
+ * and stop with what they have, flagged as truncated. A deadline expires when its time
+ * is up, when cancel() is called (e.g. because the client disconnected), or when its
+ * owner thread is interrupted; worker threads see all three. The owner is the thread
+ * that created the deadline, unless one is given explicitly: a deadline created on a
+ * thread that hands the work off and moves on (a container thread of an async request)
+ * has no owner.
+ * guard() extends the check into regular expression matching, the one place a single
+ * unit of work can run away on its own.
+ */
+public class Deadline {
+
+    /**
+     * System property with the default request time budget in seconds (default 120)
+     */
+    public static final String REQUEST_TIMEOUT_PROPERTY = "jadx.mcp.requestTimeoutSeconds";
+
+    private static final long DEFAULT_TIMEOUT_SECONDS = 120;
+    // Characters a guarded matcher reads between clock checks
+    private static final int GUARD_CHECK_INTERVAL = 4096;
+
+    private final long expiresAt;
+    private final Thread owner;
+    private volatile boolean cancelled;
+
+    private Deadline(long expiresAt, Thread owner) {
+        this.expiresAt = expiresAt;
+        this.owner = owner;
+    }
+
+    /**
+     * A deadline timeoutMs from now, owned by the calling thread; 0 or less uses the default budget
+     */
+    public static Deadline after(long timeoutMs) {
+        return after(timeoutMs, Thread.currentThread());
+    }
+
+    /**
+     * A deadline timeoutMs from now (0 or less: the default budget) whose interruption
+     * ends it, or with no owner thread at all when owner is null
+     */
+    public static Deadline after(long timeoutMs, Thread owner) {
+        long budget = timeoutMs > 0 ? timeoutMs : getDefaultTimeoutMs();
+        return new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget), owner);
+    }
+
+    /**
+     * A deadline without a time limit, which still ends on cancel() or an interrupt of the calling thread
+     */
+    public static Deadline none() {
+        return new Deadline(Long.MAX_VALUE, Thread.currentThread());
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isExpired() {
+        return getReason() != null;
+    }
+
+    /**
+     * Why the deadline expired: "cancelled", "deadline", or null while it has not
+     */
+    public String getReason() {
+        if (cancelled || owner != null && owner.isInterrupted()) {
+            return "cancelled";
+        }
+        if (expiresAt != Long.MAX_VALUE && System.nanoTime() - expiresAt >= 0) {
+            return "deadline";
+        }
+        return null;
+    }
+
+    /**
+     * Throw CancellationException if the deadline has expired
+     */
+    public void check() {
+        String reason = getReason();
+        if (reason != null) {
+            throw new CancellationException("Request stopped: " + reason);
+        }
+    }
+
+    /**
+     * Milliseconds left, or Long.MAX_VALUE without a time limit
+     */
+    public long getRemainingMs() {
+        if (expiresAt == Long.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(expiresAt - System.nanoTime()));
+    }
+
+    /**
+     * Wrap text so that a Matcher reading it throws CancellationException once the
+     * deadline expires, instead of backtracking on for minutes
+     */
+    public CharSequence guard(CharSequence text) {
+        return new GuardedText(text, this);
+    }
+
+    private static long getDefaultTimeoutMs() {
+        String configured = System.getProperty(REQUEST_TIMEOUT_PROPERTY);
+        if (configured != null) {
+            try {
+                return Math.max(1, Long.parseLong(configured.trim())) * 1000;
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid " + REQUEST_TIMEOUT_PROPERTY + ": " + configured);
+            }
+        }
+        return DEFAULT_TIMEOUT_SECONDS * 1000;
+    }
+
+    private static class GuardedText implements CharSequence {
+        private final CharSequence text;
+        private final Deadline deadline;
+        private int reads;
+
+        GuardedText(CharSequence text, Deadline deadline) {
+            this.text = text;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (++reads == GUARD_CHECK_INTERVAL) {
+                reads = 0;
+                deadline.check();
+            }
+            return text.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new GuardedText(text.subSequence(start, end), deadline);
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package com.example.jadxmcpserver.core;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.CRC32;
+
+/**
+ * Disk Code Cache - Persistent per-class decompiled code, method offsets and smali for one APK
+ * Each APK + decompiler settings combination gets its own directory, named by the
+ * SHA-256 of the APK file and a hash of the settings. Entries are appended to a
+ * single segment file and read back through a memory mapping, so reopening the same
+ * APK serves class sources without running the decompiler.
+ *
+ * Segment layout: an 8 byte header (magic, version) followed by records of
+ * [int kind][int nameLength][int dataLength][int crc32 of data][name][data], UTF-8.
+ * The record index is rebuilt by scanning headers on open; a torn record at the
+ * end (e.g. after a crash) is truncated. If another process (or a session being
+ * replaced by a reload) holds the segment lock the cache is opened read-only; writes
+ * periodically retry the lock and take over once it is free.
+ *
+ * A FileChannel is closed for good when a thread blocked in it is interrupted, and
+ * callers here are interruptible request and warm-up threads. All channel operations
+ * therefore run on a private I/O thread that nobody interrupts; callers wait for it
+ * and keep their interrupt status for later.
+ */
+public class DiskCodeCache implements Closeable {
+
+    public enum Kind { CODE, SMALI, METHODS }
+
+    private static final int MAGIC = 0x4A4D4353; // "JMCS"
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_BYTES = 8;
+    private static final int RECORD_HEADER_BYTES = 16;
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+    private static final String SEGMENT_FILE = "code.seg";
+    private static final long LOCK_RETRY_MS = 5000;
+
+    private final Path directory;
+    private final FileChannel channel;
+    private final ExecutorService io;
+    private FileLock lock;
+    private long lastLockAttempt;
+    private final Map<String, long[]> records = new HashMap<>();
+    private MappedByteBuffer mapped;
+    private long size;
+    private long hits;
+    private long misses;
+    private long writes;
+    private long failedWrites;
+    private String lastError;
+
+    private DiskCodeCache(Path directory, FileChannel channel) throws IOException {
+        this.directory = directory;
+        this.channel = channel;
+        this.io = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jadx-disk-cache");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            this.lock = io(() -> tryLock(channel));
+            this.size = io(channel::size);
+            if (lock != null) {
+                writeHeaderIfEmpty();
+            }
+            scan();
+        } catch (IOException | RuntimeException e) {
+            io.shutdown();
+            throw e;
+        }
+    }
+
+    private void writeHeaderIfEmpty() throws IOException {
+        if (size == 0) {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES).putInt(MAGIC).putInt(VERSION);
+            header.flip();
+            io(() -> channel.write(header, 0));
+            size = FILE_HEADER_BYTES;
+        }
+    }
+
+    /**
+     * Open (or create) the cache for an APK under a base directory
+     */
+    public static DiskCodeCache open(Path baseDirectory, String apkSha256, String settings) throws IOException {
+        Path directory = baseDirectory.resolve(cacheKey(apkSha256, settings));
+        Files.createDirectories(directory);
+        FileChannel channel = FileChannel.open(directory.resolve(SEGMENT_FILE),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new DiskCodeCache(directory, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Cache directory name: APK SHA-256 plus a short hash of the decompiler settings
+     */
+    public static String cacheKey(String apkSha256, String settings) {
+        String settingsHash = sha256(settings);
+        return apkSha256 + "-" + settingsHash.substring(0, 12);
+    }
+
+    /**
+     * SHA-256 of a string's UTF-8 bytes as lower-case hex
+     */
+    public static String sha256(String text) {
+        return toHex(sha256().digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * SHA-256 of a file as lower-case hex
+     */
+    public static String sha256(File file) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Get cached data for a class, or null if absent or unreadable
+     */
+    public synchronized String get(Kind kind, String className) {
+        long[] record = records.get(recordKey(kind, className));
+        if (record == null) {
+            misses++;
+            return null;
+        }
+        try {
+            long offset = record[0];
+            int length = (int) record[1];
+            ByteBuffer buffer = map(offset + length);
+            byte[] data = read(buffer, offset, length);
+            if (crc(data) != (int) record[2]) {
+                records.remove(recordKey(kind, className));
+                misses++;
+                return null;
+            }
+            hits++;
+            return new String(data, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            lastError = e.toString();
+            misses++;
+            return null;
+        }
+    }
+
+    public synchronized boolean contains(Kind kind, String className) {
+        return records.containsKey(recordKey(kind, className));
+    }
+
+    /**
+     * Append data for a class. Ignored when read-only, already present, or the segment is full.
+     */
+    public synchronized void put(Kind kind, String className, String data) {
+        String key = recordKey(kind, className);
+        if (records.containsKey(key) || !writable()) {
+            return;
+        }
+        byte[] name = className.getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        long recordSize = RECORD_HEADER_BYTES + name.length + bytes.length;
+        if (size + recordSize > MAX_SEGMENT_BYTES) {
+            return;
+        }
+
+        int crc = crc(bytes);
+        ByteBuffer buffer = ByteBuffer.allocate((int) recordSize);
+        buffer.putInt(kind.ordinal()).putInt(name.length).putInt(bytes.length).putInt(crc);
+        buffer.put(name).put(bytes);
+        buffer.flip();
+        try {
+            long start = size;
+            long end = io(() -> {
+                long position = start;
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+                return position;
+            });
+            records.put(key, new long[] {start + RECORD_HEADER_BYTES + name.length, bytes.length, crc});
+            size = end;
+            writes++;
+        } catch (IOException e) {
+            // A failed append only costs a future re-decompile, but is reported in the stats
+            failedWrites++;
+            lastError = e.toString();
+        }
+    }
+
+    /**
+     * Get disk cache counters and location
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("directory", directory.toString());
+        stats.put("entries", records.size());
+        stats.put("segmentBytes", size);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("writes", writes);
+        stats.put("failedWrites", failedWrites);
+        stats.put("readOnly", lock == null || !channel.isOpen());
+        stats.put("available", channel.isOpen());
+        if (lastError != null) {
+            stats.put("lastError", lastError);
+        }
+        return stats;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        mapped = null;
+        records.clear();
+        try {
+            if (lock != null && lock.isValid()) {
+                FileLock held = lock;
+                io(() -> {
+                    held.release();
+                    return null;
+                });
+            }
+        } finally {
+            io.shutdown();
+            channel.close();
+        }
+    }
+
+    /**
+     * Run a channel operation on the I/O thread and wait for it, uninterruptibly
+     */
+    private <T> T io(Callable<T> operation) throws IOException {
+        Future<T> future;
+        try {
+            future = io.submit(operation);
+        } catch (RejectedExecutionException e) {
+            throw new ClosedChannelException();
+        }
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new IOException(e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Whether this cache may append, retrying the segment lock now and then while read-only.
+     * On takeover the index is rescanned to pick up records the previous writer appended.
+     */
+    private boolean writable() {
+        if (lock != null) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (now - lastLockAttempt < LOCK_RETRY_MS) {
+            return false;
+        }
+        lastLockAttempt = now;
+        try {
+            lock = io(() -> tryLock(channel));
+            if (lock != null) {
+                size = io(channel::size);
+                writeHeaderIfEmpty();
+                scan();
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        return lock != null;
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Rebuild the record index from the segment, truncating a torn tail
+     */
+    private void scan() throws IOException {
+        if (size < FILE_HEADER_BYTES) {
+            return;
+        }
+        ByteBuffer buffer = map(size);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Unrecognized code cache segment in " + directory);
+        }
+
+        long position = FILE_HEADER_BYTES;
+        while (position + RECORD_HEADER_BYTES <= size) {
+            int p = (int) position;
+            int kind = buffer.getInt(p);
+            int nameLength = buffer.getInt(p + 4);
+            int dataLength = buffer.getInt(p + 8);
+            int crc = buffer.getInt(p + 12);
+            long end = position + RECORD_HEADER_BYTES + (long) nameLength + dataLength;
+            if (kind < 0 || kind >= Kind.values().length || nameLength < 0 || dataLength < 0 || end > size) {
+                break;
+            }
+            byte[] name = read(buffer, position + RECORD_HEADER_BYTES, nameLength);
+            long dataOffset = position + RECORD_HEADER_BYTES + nameLength;
+            records.put(recordKey(Kind.values()[kind], new String(name, StandardCharsets.UTF_8)),
+                new long[] {dataOffset, dataLength, crc});
+            position = end;
+        }
+
+        if (position < size && lock != null) {
+            mapped = null;
+            long end = position;
+            io(() -> channel.truncate(end));
+            size = position;
+        }
+    }
+
+    /**
+     * Get a read-only mapping that covers at least the given length, remapping after appends
+     */
+    private ByteBuffer map(long length) throws IOException {
+        if (mapped == null || mapped.capacity() < length) {
+            long mapSize = size;
+            mapped = io(() -> channel.map(FileChannel.MapMode.READ_ONLY, 0, mapSize));
+        }
+        return mapped;
+    }
+
+    private static byte[] read(ByteBuffer buffer, long offset, int length) {
+        ByteBuffer view = buffer.duplicate();
+        view.position((int) offset);
+        byte[] bytes = new byte[length];
+        view.get(bytes);
+        return bytes;
+    }
+
+    private static String recordKey(Kind kind, String className) {
+        return kind.ordinal() + ":" + className;
+    }
+
+    private static int crc(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        return (int) crc.getValue();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
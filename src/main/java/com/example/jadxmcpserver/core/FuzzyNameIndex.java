@@ -0,0 +1,174 @@
+package com.example.jadxmcpserver.core;
+
+import java.util.*;
+
+/**
+ * Fuzzy Name Index - Edit-distance lookup over symbol names for "did you mean" suggestions
+ * Distinct lower-cased names are bucketed by length; each keeps the values (original
+ * spellings, full class names, ...) it was added with. A query with radius k only
+ * looks at buckets within k of its length, rejects most of them with a 64-bit
+ * character-set mask (one edit changes at most two bits), and verifies the rest with
+ * a banded Levenshtein that stops as soon as the distance exceeds k.
+ * Read-only after build.
+ */
+public class FuzzyNameIndex {
+
+    private final String[] keys;
+    private final long[] masks;
+    private final int[] lengthOffsets;
+    private final List<List<String>> values;
+
+    /**
+     * One suggested value and its edit distance to the query
+     */
+    public static class Suggestion {
+        public final String value;
+        public final int distance;
+
+        Suggestion(String value, int distance) {
+            this.value = value;
+            this.distance = distance;
+        }
+    }
+
+    private FuzzyNameIndex(Map<String, List<String>> valuesByKey) {
+        this.keys = valuesByKey.keySet().toArray(new String[0]);
+        Arrays.sort(keys, Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder()));
+
+        int maxLength = keys.length > 0 ? keys[keys.length - 1].length() : 0;
+        this.lengthOffsets = new int[maxLength + 2];
+        this.masks = new long[keys.length];
+        this.values = new ArrayList<>(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            lengthOffsets[keys[i].length() + 1]++;
+            masks[i] = mask(keys[i]);
+            values.add(valuesByKey.get(keys[i]));
+        }
+        for (int i = 1; i < lengthOffsets.length; i++) {
+            lengthOffsets[i] += lengthOffsets[i - 1];
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Collects (name, value) pairs before the index is built
+     */
+    public static class Builder {
+        private final Map<String, List<String>> valuesByKey = new HashMap<>();
+
+        public Builder add(String name, String value) {
+            List<String> list = valuesByKey.computeIfAbsent(name.toLowerCase(Locale.ROOT), k -> new ArrayList<>(1));
+            if (!list.contains(value)) {
+                list.add(value);
+            }
+            return this;
+        }
+
+        public FuzzyNameIndex build() {
+            return new FuzzyNameIndex(valuesByKey);
+        }
+    }
+
+    /**
+     * Get up to limit values within maxDistance of the query, closest first then alphabetical
+     */
+    public List<Suggestion> search(String query, int maxDistance, int limit) {
+        List<Suggestion> results = new ArrayList<>();
+        if (limit <= 0) {
+            return results;
+        }
+
+        String key = query.toLowerCase(Locale.ROOT);
+        long queryMask = mask(key);
+        int maxLength = lengthOffsets.length - 2;
+        int fromLength = Math.max(0, key.length() - maxDistance);
+        int toLength = Math.min(maxLength, key.length() + maxDistance);
+        int[] row = new int[key.length() + 1];
+
+        for (int length = fromLength; length <= toLength; length++) {
+            for (int i = lengthOffsets[length]; i < lengthOffsets[length + 1]; i++) {
+                if (Long.bitCount(masks[i] ^ queryMask) > 2 * maxDistance) {
+                    continue;
+                }
+                int distance = boundedDistance(key, keys[i], maxDistance, row);
+                if (distance <= maxDistance) {
+                    for (String value : values.get(i)) {
+                        results.add(new Suggestion(value, distance));
+                    }
+                }
+            }
+        }
+
+        results.sort(Comparator.comparingInt((Suggestion s) -> s.distance).thenComparing(s -> s.value));
+        return results.size() > limit ? new ArrayList<>(results.subList(0, limit)) : results;
+    }
+
+    /**
+     * Number of distinct (case-insensitive) names
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Default search radius for a query: roughly one edit per three characters, capped at 3
+     */
+    public static int defaultMaxDistance(String query) {
+        return Math.max(1, Math.min(3, query.length() / 3));
+    }
+
+    /**
+     * Set of characters present, folded into 64 bits
+     */
+    private static long mask(String s) {
+        long mask = 0;
+        for (int i = 0; i < s.length(); i++) {
+            mask |= 1L << (s.charAt(i) & 63);
+        }
+        return mask;
+    }
+
+    /**
+     * Levenshtein distance restricted to a diagonal band of width 2 * max + 1.
+     * Returns max + 1 as soon as every cell of a row exceeds max.
+     */
+    static int boundedDistance(String a, String b, int max, int[] row) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > max) {
+            return max + 1;
+        }
+        int over = max + 1;
+
+        // row[j] holds the distance between b[0..i) and a[0..j)
+        for (int j = 0; j <= n; j++) {
+            row[j] = j <= max ? j : over;
+        }
+        for (int i = 1; i <= m; i++) {
+            int from = Math.max(1, i - max);
+            int to = Math.min(n, i + max);
+            int diagonal = row[from - 1];
+            row[from - 1] = from - 1 == 0 && i <= max ? i : over;
+            int rowMin = row[from - 1];
+            char cb = b.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                int above = row[j];
+                int cost = a.charAt(j - 1) == cb ? 0 : 1;
+                int value = Math.min(Math.min(above + 1, row[j - 1] + 1), diagonal + cost);
+                row[j] = Math.min(value, over);
+                diagonal = above;
+                rowMin = Math.min(rowMin, row[j]);
+            }
+            if (to < n) {
+                row[to + 1] = over;
+            }
+            if (rowMin > max) {
+                return over;
+            }
+        }
+        return row[n];
+    }
+}
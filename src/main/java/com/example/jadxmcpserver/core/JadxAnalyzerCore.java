@@ -1,28 +1,24 @@
 package com.example.jadxmcpserver.core;
 
+import com.example.jadxmcpserver.model.AppManifest;
 import com.example.jadxmcpserver.model.CallGraphNode;
+import com.example.jadxmcpserver.model.CodeMatch;
 import com.example.jadxmcpserver.model.ExportedComponent;
+import com.example.jadxmcpserver.model.ManifestComponent;
 import jadx.api.JadxArgs;
 import jadx.api.JadxDecompiler;
 import jadx.api.JavaClass;
 import jadx.api.JavaMethod;
-import jadx.api.JavaField;
 import jadx.api.ResourceFile;
 import jadx.api.ICodeInfo;
+import jadx.core.dex.nodes.ClassNode;
 import jadx.core.xmlgen.ResContainer;
-import jadx.zip.IZipEntry;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
 
 import java.io.File;
-import java.io.StringReader;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
 
@@ -34,17 +30,82 @@ import java.util.regex.Matcher;
  * - Class and method analysis
  * - Call graph generation
  * - String and code search functionality
+ *
+ * Once loaded, all query methods may be called from many threads at once (JADX
+ * serializes decompilation per class; the indexes and caches are thread-safe).
+ * loadApk() and close() must not overlap with queries; SessionRegistry leases
+ * guarantee that for the API.
  */
 public class JadxAnalyzerCore {
     
+    private static final int MAX_CALL_GRAPH_DEPTH = 5;
+    private static final int MAX_SUGGESTIONS = 10;
+    
+    /**
+     * Resource paging: default and largest chunk, in characters for text and bytes for binary files
+     */
+    public static final int DEFAULT_RESOURCE_CHUNK = 64 * 1024;
+    public static final int MAX_RESOURCE_CHUNK = 1024 * 1024;
+    
+    /**
+     * Source and smali paging: default and largest chunk in characters (about 4 per token)
+     */
+    public static final int DEFAULT_SOURCE_CHUNK = 40 * 1024;
+    public static final int MAX_SOURCE_CHUNK = 1024 * 1024;
+    
+    /**
+     * Batch size caps: default and largest total of source and smali characters per batch
+     */
+    public static final int DEFAULT_BATCH_CHARS = 160 * 1024;
+    public static final int MAX_BATCH_CHARS = 4 * 1024 * 1024;
+    
+    /**
+     * System property with the decompiled code cache budget in megabytes
+     * (default: a quarter of the maximum heap, at least 64 MB)
+     */
+    public static final String CODE_CACHE_MB_PROPERTY = "jadx.mcp.codeCacheMb";
+    
+    /**
+     * System properties for the persistent code cache: base directory
+     * (default ~/.cache/jadx-mcp-server) and an on/off switch (default on)
+     */
+    public static final String DISK_CACHE_DIR_PROPERTY = "jadx.mcp.diskCacheDir";
+    public static final String DISK_CACHE_ENABLED_PROPERTY = "jadx.mcp.diskCache";
+    
+    /**
+     * System property with the number of background warm-up threads
+     * (default: available processors - 1, at least 1)
+     */
+    public static final String WARMUP_THREADS_PROPERTY = "jadx.mcp.warmupThreads";
+    
     private JadxDecompiler jadx;
+    private SymbolRegistry symbols;
+    private volatile CallGraphIndex callGraph;
+    private volatile FuzzyNameIndex methodSuggestions;
+    private volatile FuzzyNameIndex classSuggestions;
+    private CodeSearchIndex codeIndex = new CodeSearchIndex();
+    private BoundedCodeCache codeCache;
+    private volatile long codeCacheBudget = getDefaultCodeCacheBudget();
+    private ResourceIndex resources;
+    private volatile Predecompiler predecompiler;
     private String apkPath;
-    private List<ExportedComponent> exportedComponents;
+    private String apkSha256;
+    private String decompilerSettings;
     private String manifestContent;
-    private String packageName;
+    private AppManifest manifest;
+    // Why the manifest text could not be parsed, or null
+    private String manifestError;
     
     public JadxAnalyzerCore(String apkPath) {
+        this(apkPath, null);
+    }
+    
+    /**
+     * @param apkSha256 SHA-256 of the APK if already known, or null to compute it on load
+     */
+    public JadxAnalyzerCore(String apkPath, String apkSha256) {
         this.apkPath = apkPath;
+        this.apkSha256 = apkSha256;
     }
     
     /**
@@ -52,6 +113,14 @@ public class JadxAnalyzerCore {
      * @return true if loading was successful, false otherwise
      */
     public boolean loadApk() {
+        return loadApk(new LoadProgress());
+    }
+    
+    /**
+     * Load the APK, reporting each phase to progress; throws CancellationException
+     * (leaving this analyzer to be closed) when progress is cancelled between phases
+     */
+    public boolean loadApk(LoadProgress progress) {
         File apkFile = new File(apkPath);
         
         if (!apkFile.exists()) {
@@ -60,6 +129,11 @@ public class JadxAnalyzerCore {
         
         // Close previous instance if exists
         close();
+        callGraph = null;
+        predecompiler = null;
+        methodSuggestions = null;
+        classSuggestions = null;
+        codeIndex = new CodeSearchIndex();
         
         // Configure JADX
         JadxArgs jadxArgs = new JadxArgs();
@@ -67,15 +141,29 @@ public class JadxAnalyzerCore {
         jadxArgs.setDeobfuscationOn(true);
         jadxArgs.setDeobfuscationMinLength(2);
         jadxArgs.setDeobfuscationMaxLength(64);
+        decompilerSettings = describeSettings(jadxArgs);
+        codeCache = new BoundedCodeCache(codeCacheBudget, openDiskCache());
+        jadxArgs.setCodeCache(codeCache);
         
         try {
+            progress.start(LoadProgress.Phase.DEX);
             jadx = new JadxDecompiler(jadxArgs);
             jadx.load();
             
+            // Index classes, methods and fields once so lookups don't scan every class
+            progress.start(LoadProgress.Phase.INDEXING);
+            symbols = SymbolRegistry.build(jadx.getClasses());
+            progress.start(LoadProgress.Phase.RESOURCES);
+            resources = ResourceIndex.build(jadx.getResources());
+            
             // Load manifest
+            progress.start(LoadProgress.Phase.MANIFEST);
             loadManifest();
             
+            progress.checkCancelled();
             return true;
+        } catch (CancellationException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Error loading APK: " + e.getMessage(), e);
         }
@@ -87,9 +175,26 @@ public class JadxAnalyzerCore {
     public Map<String, Object> getApkInfo() {
         Map<String, Object> info = new HashMap<>();
         info.put("apkPath", apkPath);
-        info.put("packageName", packageName);
-        info.put("totalClasses", jadx != null ? jadx.getClasses().size() : 0);
-        info.put("exportedComponents", exportedComponents != null ? exportedComponents.size() : 0);
+        info.put("packageName", getPackageName());
+        info.put("totalClasses", symbols != null ? symbols.getClassCount() : 0);
+        info.put("totalMethods", symbols != null ? symbols.getMethodCount() : 0);
+        info.put("totalFields", symbols != null ? symbols.getFieldCount() : 0);
+        info.put("symbolIndexBuildMs", symbols != null ? symbols.getBuildTimeMs() : 0);
+        info.put("symbolIndexBytes", symbols != null ? symbols.getEstimatedBytes() : 0);
+        info.put("codeIndexClasses", codeIndex.getDocumentCount());
+        info.put("codeCacheMaxBytes", codeCache != null ? codeCache.getMaxBytes() : 0);
+        CallGraphIndex index = callGraph;
+        if (index != null) {
+            info.put("callGraphMethods", index.getMethodCount());
+            info.put("callGraphEdges", index.getEdgeCount());
+            info.put("callGraphBytes", index.getEstimatedBytes());
+            info.put("callGraphBuildMs", index.getBuildTimeMs());
+        }
+        info.put("exportedComponents", manifest != null ? manifest.getExportedComponents().size() : 0);
+        info.put("components", manifest != null ? manifest.components.size() : 0);
+        if (manifestError != null) {
+            info.put("manifestError", manifestError);
+        }
         info.put("mainActivity", getMainActivityClass());
         return info;
     }
@@ -105,114 +210,255 @@ public class JadxAnalyzerCore {
      * Get the package name from manifest
      */
     public String getPackageName() {
-        return packageName;
+        return manifest != null ? manifest.packageName : null;
+    }
+    
+    /**
+     * Get the parsed manifest, or null if the APK has none
+     */
+    public AppManifest getManifest() {
+        return manifest;
     }
     
     /**
      * Get main activity class from AndroidManifest.xml
      */
     public String getMainActivityClass() {
-        if (manifestContent == null) {
-            return null;
+        return manifest != null ? manifest.mainActivity : null;
+    }
+    
+    /**
+     * Get all classes in the APK
+     */
+    public List<String> getAllClasses() {
+        return new ArrayList<>(symbols.getSortedClassNames());
+    }
+
+    /**
+     * Get the sorted names of all classes in a package and its subpackages, as a view of
+     * the pre-sorted name list; a null or empty package returns all classes
+     */
+    public List<String> getClassNames(String packagePrefix) {
+        return symbols.getSortedClassNames(toPackagePrefix(packagePrefix));
+    }
+
+    /**
+     * Get packages under a prefix with their class counts, sorted by name. Each entry has
+     * the package, the classes directly in it and the classes in it and all subpackages.
+     * depth limits how many package levels below the prefix are listed (0 = unlimited).
+     */
+    public List<Map<String, Object>> getPackageTree(String packagePrefix, int depth) {
+        String root = packagePrefix != null ? packagePrefix.trim() : "";
+        if (root.endsWith(".")) {
+            root = root.substring(0, root.length() - 1);
         }
-        
-        try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document doc = builder.parse(new InputSource(new StringReader(manifestContent)));
-            
-            NodeList activities = doc.getElementsByTagName("activity");
-            
-            for (int i = 0; i < activities.getLength(); i++) {
-                Element activity = (Element) activities.item(i);
-                NodeList intentFilters = activity.getElementsByTagName("intent-filter");
-                
-                for (int j = 0; j < intentFilters.getLength(); j++) {
-                    Element intentFilter = (Element) intentFilters.item(j);
-                    NodeList actions = intentFilter.getElementsByTagName("action");
-                    NodeList categories = intentFilter.getElementsByTagName("category");
-                    
-                    boolean hasMainAction = false;
-                    boolean hasLauncherCategory = false;
-                    
-                    for (int k = 0; k < actions.getLength(); k++) {
-                        Element action = (Element) actions.item(k);
-                        if ("android.intent.action.MAIN".equals(action.getAttribute("android:name"))) {
-                            hasMainAction = true;
-                        }
-                    }
-                    
-                    for (int k = 0; k < categories.getLength(); k++) {
-                        Element category = (Element) categories.item(k);
-                        if ("android.intent.category.LAUNCHER".equals(category.getAttribute("android:name"))) {
-                            hasLauncherCategory = true;
-                        }
-                    }
-                    
-                    if (hasMainAction && hasLauncherCategory) {
-                        String activityName = activity.getAttribute("android:name");
-                        if (activityName.startsWith(".")) {
-                            activityName = packageName + activityName;
-                        } else if (!activityName.contains(".")) {
-                            activityName = packageName + "." + activityName;
-                        }
-                        return activityName;
-                    }
+        int rootLevel = root.isEmpty() ? 0 : packageLevel(root);
+        String childPrefix = root.isEmpty() ? "" : root + ".";
+
+        SortedMap<String, int[]> counts = symbols.getPackageCounts();
+        SortedMap<String, int[]> range = root.isEmpty() ? counts : counts.tailMap(root);
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Map.Entry<String, int[]> entry : range.entrySet()) {
+            String pkg = entry.getKey();
+            if (!pkg.equals(root) && !pkg.startsWith(childPrefix)) {
+                if (pkg.compareTo(childPrefix) > 0) {
+                    break;
                 }
+                continue;
             }
-        } catch (Exception e) {
-            throw new RuntimeException("Error finding main activity: " + e.getMessage(), e);
+            if (depth > 0 && packageLevel(pkg) - rootLevel > depth) {
+                continue;
+            }
+            Map<String, Object> node = new LinkedHashMap<>();
+            node.put("package", pkg);
+            node.put("classes", entry.getValue()[0]);
+            node.put("totalClasses", entry.getValue()[1]);
+            result.add(node);
         }
-        
-        return null;
+        return result;
+    }
+
+    /**
+     * Produce the requested parts of classes in parallel and pass them to the sink in the
+     * given order; returns the number of classes the sink accepted
+     */
+    public int exportClasses(List<String> classNames, Set<ClassExporter.Part> parts, ClassExporter.Sink sink) throws IOException {
+        return exportClasses(classNames, parts, Deadline.none(), sink);
     }
     
     /**
-     * Get all classes in the APK
+     * Export classes as above, stopping once the deadline expires
      */
-    public List<String> getAllClasses() {
-        List<String> classNames = new ArrayList<>();
-        for (JavaClass javaClass : jadx.getClasses()) {
-            classNames.add(javaClass.getFullName());
+    public int exportClasses(List<String> classNames, Set<ClassExporter.Part> parts, Deadline deadline,
+                             ClassExporter.Sink sink) throws IOException {
+        checkLoaded();
+        return new ClassExporter(this, getWarmupThreads()).export(classNames, parts, deadline, sink);
+    }
+    
+    /**
+     * Get the requested parts of many classes at once, decompiled in parallel, in the given
+     * order. Classes are added until the next one would take the total of source and smali
+     * characters past maxChars; the rest are listed as omitted so they can be asked for
+     * again. A class larger than the whole budget is reported as an error instead.
+     */
+    public Map<String, Object> getClassesBatch(List<String> classNames, Set<ClassExporter.Part> parts, int maxChars) {
+        return getClassesBatch(classNames, parts, maxChars, Deadline.none());
+    }
+    
+    /**
+     * Get a batch of classes as above; classes not reached before the deadline are also
+     * omitted, and the result is marked truncated with the reason it stopped
+     */
+    public Map<String, Object> getClassesBatch(List<String> classNames, Set<ClassExporter.Part> parts, int maxChars,
+                                               Deadline deadline) {
+        int budget = maxChars > 0 ? Math.min(maxChars, MAX_BATCH_CHARS) : DEFAULT_BATCH_CHARS;
+        List<Map<String, Object>> classes = new ArrayList<>();
+        long[] used = new long[1];
+        int accepted;
+        try {
+            accepted = exportClasses(classNames, parts, deadline, record -> {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("className", record.className);
+                long size = (record.source != null ? record.source.length() : 0)
+                    + (record.smali != null ? record.smali.length() : 0);
+                if (record.error != null) {
+                    entry.put("error", record.error);
+                } else if (size > budget) {
+                    entry.put("error", "Class too large for a batch (" + size + " characters); "
+                        + "read it in chunks with get_class_source or get_smali_of_class");
+                } else if (used[0] + size > budget) {
+                    return false;
+                } else {
+                    used[0] += size;
+                    putIfNotNull(entry, "source", record.source);
+                    putIfNotNull(entry, "smali", record.smali);
+                    putIfNotNull(entry, "methods", record.methods);
+                    putIfNotNull(entry, "fields", record.fields);
+                }
+                classes.add(entry);
+                return true;
+            });
+        } catch (IOException e) {
+            throw new RuntimeException("Error getting classes: " + e.getMessage(), e);
+        }
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("classes", classes);
+        result.put("returned", accepted);
+        result.put("totalChars", used[0]);
+        result.put("omitted", new ArrayList<>(classNames.subList(accepted, classNames.size())));
+        String stopReason = accepted < classNames.size() ? deadline.getReason() : null;
+        result.put("truncated", stopReason != null);
+        putIfNotNull(result, "stopReason", stopReason);
+        return result;
+    }
+    
+    private static void putIfNotNull(Map<String, Object> map, String key, Object value) {
+        if (value != null) {
+            map.put(key, value);
+        }
+    }
+    
+    private static String toPackagePrefix(String packageName) {
+        if (packageName == null || packageName.trim().isEmpty()) {
+            return "";
+        }
+        String trimmed = packageName.trim();
+        return trimmed.endsWith(".") ? trimmed : trimmed + ".";
+    }
+
+    private static int packageLevel(String pkg) {
+        if (pkg.isEmpty()) {
+            return 0;
+        }
+        int level = 1;
+        for (int i = 0; i < pkg.length(); i++) {
+            if (pkg.charAt(i) == '.') {
+                level++;
+            }
         }
-        Collections.sort(classNames);
-        return classNames;
+        return level;
     }
     
     /**
      * Get full source code of a given class
      */
     public String getClassSource(String className) {
-        for (JavaClass javaClass : jadx.getClasses()) {
-            if (javaClass.getFullName().equals(className)) {
-                return javaClass.getCode();
-            }
+        JavaClass javaClass = findClass(className);
+        return javaClass != null ? getCode(javaClass) : null;
+    }
+    
+    /**
+     * Read a line-aligned chunk of a class's source: lines from startLine (1-based) up to
+     * endLine (0 = last line), cut at the last whole line within maxChars.
+     * Returns null if the class is not found.
+     */
+    public Map<String, Object> readClassSource(String className, int startLine, int endLine, int maxChars) {
+        JavaClass javaClass = findClass(className);
+        if (javaClass == null) {
+            return null;
+        }
+        String code = getCode(javaClass);
+        if (code == null) {
+            return null;
+        }
+        // The cached index belongs to the top-level class's code, which is what getCode returns
+        LineIndex lines = codeCache.getLineIndex(javaClass.getClassNode().getTopParentClass().getRawName());
+        if (lines == null || lines.getText() != code) {
+            lines = LineIndex.build(code);
+        }
+        return toChunkMap(className, lines, startLine, endLine, maxChars);
+    }
+    
+    private static Map<String, Object> toChunkMap(String className, LineIndex lines,
+                                                  int startLine, int endLine, int maxChars) {
+        if (startLine < 0 || endLine < 0) {
+            throw new RuntimeException("startLine and endLine must not be negative");
         }
-        return null;
+        int budget = maxChars > 0 ? Math.min(maxChars, MAX_SOURCE_CHUNK) : DEFAULT_SOURCE_CHUNK;
+        LineIndex.Chunk chunk = lines.chunk(startLine, endLine, budget);
+        int lastLine = endLine > 0 ? Math.min(endLine, lines.getLineCount()) : lines.getLineCount();
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("className", className);
+        result.put("startLine", chunk.startLine);
+        result.put("endLine", chunk.endLine);
+        result.put("totalLines", lines.getLineCount());
+        result.put("totalChars", lines.getText().length());
+        result.put("content", chunk.content);
+        boolean hasMore = chunk.endLine < lastLine;
+        result.put("hasMore", hasMore);
+        if (hasMore) {
+            result.put("nextStartLine", chunk.endLine + 1);
+        }
+        return result;
+    }
+    
+    /**
+     * Check if a class with the given full name exists
+     */
+    public boolean hasClass(String className) {
+        return symbols.hasClass(className);
     }
     
     /**
      * Search for classes by name (supports partial matching)
      */
     public List<JavaClass> searchClasses(String className) {
-        List<JavaClass> matches = new ArrayList<>();
-        
-        for (JavaClass javaClass : jadx.getClasses()) {
-            String fullName = javaClass.getFullName();
-            String simpleName = javaClass.getName();
-            
-            // Check for matches (exact, partial, or case-insensitive)
-            if (fullName.equals(className) || 
-                simpleName.equals(className) ||
-                fullName.endsWith("." + className) ||
-                fullName.toLowerCase().contains(className.toLowerCase()) ||
-                simpleName.toLowerCase().contains(className.toLowerCase())) {
-                matches.add(javaClass);
-            }
+        NameIndex.Page page = searchClassNames(className, NameIndex.MatchMode.SUBSTRING, 0, Integer.MAX_VALUE);
+        List<JavaClass> matches = new ArrayList<>(page.matches.size());
+        for (NameIndex.Match match : page.matches) {
+            matches.add(symbols.getClass(match.value));
         }
-        
         return matches;
     }
+
+    /**
+     * Search full class names (case-insensitive), ranked exact > prefix > substring
+     */
+    public NameIndex.Page searchClassNames(String query, NameIndex.MatchMode mode, int offset, int limit) {
+        return symbols.getClassNameIndex().search(query, mode, offset, limit);
+    }
     
     /**
      * Get detailed information about a class
@@ -226,11 +472,11 @@ public class JadxAnalyzerCore {
         Map<String, Object> details = new HashMap<>();
         details.put("fullName", javaClass.getFullName());
         details.put("package", javaClass.getPackage());
-        details.put("methodCount", javaClass.getMethods().size());
-        details.put("fieldCount", javaClass.getFields().size());
+        details.put("methodCount", symbols.getMethods(className).size());
+        details.put("fieldCount", symbols.getFields(className).size());
         details.put("methods", getMethodsOfClass(className));
         details.put("fields", getFieldsOfClass(className));
-        details.put("sourceCode", javaClass.getCode());
+        details.put("sourceCode", getCode(javaClass));
         
         return details;
     }
@@ -239,72 +485,88 @@ public class JadxAnalyzerCore {
      * List all methods in a specific class
      */
     public List<String> getMethodsOfClass(String className) {
-        List<String> methods = new ArrayList<>();
-        
-        for (JavaClass javaClass : jadx.getClasses()) {
-            if (javaClass.getFullName().equals(className)) {
-                for (JavaMethod method : javaClass.getMethods()) {
-                    methods.add(method.getFullName());
-                }
-                break;
-            }
-        }
-        
-        return methods;
+        List<String> methods = symbols.getMethods(className);
+        return methods != null ? new ArrayList<>(methods) : new ArrayList<>();
     }
     
     /**
      * List all fields in a specific class
      */
     public List<String> getFieldsOfClass(String className) {
-        List<String> fields = new ArrayList<>();
-        
-        for (JavaClass javaClass : jadx.getClasses()) {
-            if (javaClass.getFullName().equals(className)) {
-                for (JavaField field : javaClass.getFields()) {
-                    fields.add(field.getType() + " " + field.getName());
-                }
-                break;
-            }
-        }
-        
-        return fields;
+        List<String> fields = symbols.getFields(className);
+        return fields != null ? new ArrayList<>(fields) : new ArrayList<>();
     }
     
     /**
-     * Get source code of a specific method
+     * Get source code of a specific method (the first overload in code order)
      */
     public String getMethodByName(String className, String methodName) {
+        return getMethodByName(className, methodName, null);
+    }
+    
+    /**
+     * Get source code of a method, picking the overload by descriptor. The descriptor may be
+     * passed separately or appended to the name ("onCreate(Landroid/os/Bundle;)V"), and a
+     * prefix such as "(I)" is enough. The method is cut out of the class code at offsets
+     * taken from JADX's code metadata.
+     */
+    public String getMethodByName(String className, String methodName, String descriptor) {
         JavaClass targetClass = findClass(className);
         if (targetClass == null) {
             return null;
         }
         
-        String classCode = targetClass.getCode();
-        return extractMethodCode(classCode, methodName);
+        String name = methodName;
+        int paren = methodName.indexOf('(');
+        if (paren >= 0) {
+            name = methodName.substring(0, paren);
+            if (descriptor == null || descriptor.isEmpty()) {
+                descriptor = methodName.substring(paren);
+            }
+        }
+        if (descriptor != null && descriptor.isEmpty()) {
+            descriptor = null;
+        }
+        
+        MethodOffsetTable methods = getMethodOffsets(targetClass);
+        if (methods == null) {
+            return null;
+        }
+        int index = methods.find(targetClass.getFullName(), name, descriptor);
+        if (index < 0) {
+            List<String> overloads = methods.getDescriptors(targetClass.getFullName(), name);
+            if (descriptor != null && !overloads.isEmpty()) {
+                throw new RuntimeException("No overload of " + name + " matches " + descriptor
+                    + "; available: " + String.join(", ", overloads));
+            }
+            return null;
+        }
+        return methods.getSource(index);
     }
     
     /**
      * Search for methods by name across all classes
      */
     public Map<String, List<String>> searchMethodByName(String methodName) {
-        Map<String, List<String>> results = new HashMap<>();
-        
-        for (JavaClass javaClass : jadx.getClasses()) {
-            List<String> methods = new ArrayList<>();
-            
-            for (JavaMethod method : javaClass.getMethods()) {
-                if (method.getName().equals(methodName) || 
-                    method.getName().contains(methodName)) {
-                    methods.add(method.getFullName());
-                }
-            }
-            
-            if (!methods.isEmpty()) {
-                results.put(javaClass.getFullName(), methods);
-            }
+        NameIndex.Page page = searchMethods(methodName, NameIndex.MatchMode.SUBSTRING, 0, Integer.MAX_VALUE);
+        return groupByOwner(page);
+    }
+
+    /**
+     * Search method names (case-insensitive), ranked exact > prefix > substring
+     */
+    public NameIndex.Page searchMethods(String query, NameIndex.MatchMode mode, int offset, int limit) {
+        return symbols.getMethodNameIndex().search(query, mode, offset, limit);
+    }
+
+    /**
+     * Group name index matches by owning class, keeping rank order
+     */
+    public static Map<String, List<String>> groupByOwner(NameIndex.Page page) {
+        Map<String, List<String>> results = new LinkedHashMap<>();
+        for (NameIndex.Match match : page.matches) {
+            results.computeIfAbsent(match.owner, k -> new ArrayList<>()).add(match.value);
         }
-        
         return results;
     }
     
@@ -313,7 +575,13 @@ public class JadxAnalyzerCore {
      * Get all exported components from the manifest
      */
     public List<ExportedComponent> getExportedComponents() {
-        return exportedComponents != null ? new ArrayList<>(exportedComponents) : new ArrayList<>();
+        List<ExportedComponent> result = new ArrayList<>();
+        if (manifest != null) {
+            for (ManifestComponent component : manifest.getExportedComponents()) {
+                result.add(component.toExportedComponent());
+            }
+        }
+        return result;
     }
     
     /**
@@ -321,13 +589,9 @@ public class JadxAnalyzerCore {
      */
     public Map<String, List<ExportedComponent>> getExportedComponentsByType() {
         Map<String, List<ExportedComponent>> grouped = new HashMap<>();
-        
-        if (exportedComponents != null) {
-            for (ExportedComponent component : exportedComponents) {
-                grouped.computeIfAbsent(component.type, k -> new ArrayList<>()).add(component);
-            }
+        for (ExportedComponent component : getExportedComponents()) {
+            grouped.computeIfAbsent(component.type, k -> new ArrayList<>()).add(component);
         }
-        
         return grouped;
     }
     
@@ -336,14 +600,47 @@ public class JadxAnalyzerCore {
      */
     public List<Map<String, Object>> getExportedComponentsAsMap() {
         List<Map<String, Object>> result = new ArrayList<>();
-        if (exportedComponents != null) {
-            for (ExportedComponent component : exportedComponents) {
+        for (ExportedComponent component : getExportedComponents()) {
+            result.add(component.toMap());
+        }
+        return result;
+    }
+    
+    /**
+     * Get all components declared in the manifest, exported or not, as Maps for API serialization
+     */
+    public List<Map<String, Object>> getComponentsAsMap() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        if (manifest != null) {
+            for (ManifestComponent component : manifest.components) {
                 result.add(component.toMap());
             }
         }
         return result;
     }
     
+    /**
+     * Set the decompiled code cache budget in bytes, before or after loading;
+     * a smaller budget evicts least-recently-used classes right away
+     */
+    public void setCodeCacheBudget(long bytes) {
+        codeCacheBudget = bytes;
+        BoundedCodeCache cache = codeCache;
+        if (cache != null) {
+            cache.setMaxBytes(bytes);
+        }
+    }
+    
+    /**
+     * Get decompiled code cache counters (hits, misses, evictions, occupancy) and decoded resource cache counters
+     */
+    public Map<String, Object> getCodeCacheStats() {
+        checkLoaded();
+        Map<String, Object> stats = codeCache.getStats();
+        stats.put("resources", resources.getStats());
+        return stats;
+    }
+    
     /**
      * Check if APK is loaded
      */
@@ -364,416 +661,630 @@ public class JadxAnalyzerCore {
      * Generate call graph for a specific method
      */
     public CallGraphResult generateCallGraphForMethod(String targetMethod) {
+        return generateCallGraphForMethod(targetMethod, Deadline.none());
+    }
+    
+    /**
+     * Generate a call graph, stopping the walk once the deadline expires. A stopped graph
+     * holds the callers reached so far and is marked truncated; its entry points are those
+     * of the partial graph. Building the shared index on first use is not interrupted.
+     */
+    public CallGraphResult generateCallGraphForMethod(String targetMethod, Deadline deadline) {
+        CallGraphIndex index = getCallGraphIndex();
+        
         // Find all methods that match the target
-        Set<CallGraphNode> targetNodes = findTargetMethods(targetMethod);
+        int[] targets = index.findMethods(targetMethod);
         
-        if (targetNodes.isEmpty()) {
+        if (targets.length == 0) {
             return new CallGraphResult(false, "Method not found: " + targetMethod, null, null, getSimilarMethods(targetMethod));
         }
         
-        // Build call graph starting from target methods
-        Map<String, CallGraphNode> allNodes = new HashMap<>();
-        Set<String> visited = new HashSet<>();
+        // Walk caller edges breadth-first starting from the target methods
+        Map<Integer, CallGraphNode> allNodes = new HashMap<>();
+        Set<CallGraphNode> targetNodes = new LinkedHashSet<>();
+        List<Integer> frontier = new ArrayList<>();
         
-        for (CallGraphNode targetNode : targetNodes) {
-            findCallersRecursively(targetNode, allNodes, visited, 0, 5); // Max depth 5
+        for (int target : targets) {
+            targetNodes.add(allNodes.computeIfAbsent(target, index::toNode));
+            frontier.add(target);
         }
         
-        // Find entry points
-        Set<CallGraphNode> entryPoints = findEntryPoints(targetNodes, allNodes);
-        
-        return new CallGraphResult(true, "Call graph generated successfully", targetNodes, entryPoints, null);
-    }
-    
-    /**
-     * Result class for call graph analysis
-     */
-    public static class CallGraphResult {
-        public final boolean success;
-        public final String message;
-        public final Set<CallGraphNode> targetNodes;
-        public final Set<CallGraphNode> entryPoints;
-        public final Set<String> suggestions;
-        
-        public CallGraphResult(boolean success, String message, Set<CallGraphNode> targetNodes, 
-                              Set<CallGraphNode> entryPoints, Set<String> suggestions) {
-            this.success = success;
-            this.message = message;
-            this.targetNodes = targetNodes;
-            this.entryPoints = entryPoints;
-            this.suggestions = suggestions;
-        }
-    }
-    
-    // Private helper methods
-    
-    private void extractPackageName() {
-        try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document doc = builder.parse(new InputSource(new StringReader(manifestContent)));
-            packageName = doc.getDocumentElement().getAttribute("package");
-        } catch (Exception e) {
-            throw new RuntimeException("Error extracting package name: " + e.getMessage(), e);
-        }
-    }
-    
-    private void loadManifest() {
-        List<ResourceFile> resources = jadx.getResources();
-        
-        for (ResourceFile resource : resources) {
-            String resName = resource.getOriginalName();
-            if (resName.equals("AndroidManifest.xml")) {
-                try {
-                    ResContainer resContainer = resource.loadContent();
-                    if (resContainer != null) {
-                        ICodeInfo codeInfo = resContainer.getText();
-                        if (codeInfo != null) {
-                            manifestContent = codeInfo.toString();
-                        } else if (resContainer.getDecodedData() != null) {
-                            manifestContent = new String(resContainer.getDecodedData());
-                        }
+        String stopReason = null;
+        for (int depth = 0; depth < MAX_CALL_GRAPH_DEPTH && !frontier.isEmpty() && stopReason == null; depth++) {
+            List<Integer> next = new ArrayList<>();
+            for (int method : frontier) {
+                stopReason = deadline.getReason();
+                if (stopReason != null) {
+                    break;
+                }
+                CallGraphNode node = allNodes.get(method);
+                for (int caller : index.getCallers(method)) {
+                    CallGraphNode callerNode = allNodes.get(caller);
+                    if (callerNode == null) {
+                        callerNode = index.toNode(caller);
+                        allNodes.put(caller, callerNode);
+                        next.add(caller);
                     }
-                } catch (Exception e) {
-                    throw new RuntimeException("Error loading manifest: " + e.getMessage(), e);
+                    node.callers.add(callerNode);
                 }
-                break;
             }
+            frontier = next;
         }
         
-        if (manifestContent != null) {
-            exportedComponents = parseManifest(manifestContent);
-            extractPackageName();
-        }
-    }
-    
-    private JavaClass findClass(String className) {
-        for (JavaClass javaClass : jadx.getClasses()) {
-            if (javaClass.getFullName().equals(className)) {
-                return javaClass;
+        // Entry points are reached methods that nothing in the APK calls
+        Set<CallGraphNode> entryPoints = new LinkedHashSet<>();
+        for (Map.Entry<Integer, CallGraphNode> entry : allNodes.entrySet()) {
+            if (!targetNodes.contains(entry.getValue()) && index.getCallerCount(entry.getKey()) == 0) {
+                entryPoints.add(entry.getValue());
             }
         }
-        return null;
+        
+        if (stopReason != null) {
+            return new CallGraphResult(true, "Call graph truncated (" + stopReason + ") after "
+                + allNodes.size() + " methods", targetNodes, entryPoints, null, stopReason);
+        }
+        return new CallGraphResult(true, "Call graph generated successfully", targetNodes, entryPoints, null);
     }
     
-    private String extractMethodCode(String classCode, String methodName) {
-        String methodPattern = "(public|private|protected|static|final|native|synchronized|abstract|transient)+" +
-                              "[^{]+" + Pattern.quote(methodName) + "\\s*\\([^{]*\\{";
-        
-        Pattern pattern = Pattern.compile(methodPattern);
-        Matcher matcher = pattern.matcher(classCode);
-        
-        if (matcher.find()) {
-            int start = matcher.start();
-            int braceStart = classCode.indexOf("{", start);
-            
-            if (braceStart != -1) {
-                // Find matching closing brace
-                int braceCount = 1;
-                int pos = braceStart + 1;
-                
-                while (pos < classCode.length() && braceCount > 0) {
-                    char ch = classCode.charAt(pos);
-                    if (ch == '{') braceCount++;
-                    else if (ch == '}') braceCount--;
-                    pos++;
-                }
-                
-                if (braceCount == 0) {
-                    return classCode.substring(start, pos);
+    /**
+     * Get the bytecode call graph index, building it on first use
+     */
+    public CallGraphIndex getCallGraphIndex() {
+        checkLoaded();
+        CallGraphIndex index = callGraph;
+        if (index == null) {
+            synchronized (this) {
+                index = callGraph;
+                if (index == null) {
+                    index = CallGraphIndex.build(jadx.getRoot());
+                    callGraph = index;
                 }
             }
         }
-        
-        return null;
+        return index;
     }
     
-    private String extractMethodSmali(String classSmali, String methodName) {
-        String[] lines = classSmali.split("\n");
-        StringBuilder methodSmali = new StringBuilder();
-        boolean inMethod = false;
-        boolean foundMethod = false;
-        
-        for (String line : lines) {
-            // Look for method declaration
-            if (line.contains(".method ") && line.contains(" " + methodName + "(")) {
-                inMethod = true;
-                foundMethod = true;
-                methodSmali.append(line).append("\n");
-            } else if (inMethod && line.contains(".end method")) {
-                methodSmali.append(line).append("\n");
-                break;
-            } else if (inMethod) {
-                methodSmali.append(line).append("\n");
+    /**
+     * Start decompiling classes in the background. packages limits the warm-up to
+     * classes in those packages (and their subpackages); null or empty means all.
+     * A running warm-up is cancelled first.
+     */
+    public Map<String, Object> startWarmup(List<String> packages, int threads) {
+        checkLoaded();
+        stopWarmup();
+
+        List<JavaClass> selected = new ArrayList<>();
+        for (JavaClass javaClass : symbols.getClasses()) {
+            if (packages == null || packages.isEmpty() || inPackages(javaClass.getPackage(), packages)) {
+                selected.add(javaClass);
             }
         }
-        
-        return foundMethod ? methodSmali.toString() : null;
+        List<List<JavaClass>> batches = jadx.getDecompileScheduler().buildBatches(selected);
+        Predecompiler warmup = new Predecompiler(batches, this::decompileAndIndex,
+            threads > 0 ? threads : getWarmupThreads(), packages);
+        predecompiler = warmup;
+        warmup.start();
+        return warmup.getStatus();
     }
     
-    private Set<CallGraphNode> findTargetMethods(String targetMethod) {
-        Set<CallGraphNode> targetNodes = new HashSet<>();
-        
-        for (JavaClass javaClass : jadx.getClasses()) {
-            for (JavaMethod method : javaClass.getMethods()) {
-                String methodName = method.getName();
-                String fullName = javaClass.getFullName() + "." + methodName;
-                
-                // Check if this method matches our target
-                if (methodName.equals(targetMethod) || 
-                    fullName.endsWith("." + targetMethod) ||
-                    (targetMethod.contains(".") && fullName.endsWith(targetMethod))) {
-                    
-                    CallGraphNode node = new CallGraphNode(javaClass.getFullName(), methodName);
-                    targetNodes.add(node);
-                }
-            }
+    /**
+     * Cancel the background warm-up, if any
+     */
+    public void stopWarmup() {
+        Predecompiler warmup = predecompiler;
+        if (warmup != null) {
+            warmup.cancel();
         }
-        
-        return targetNodes;
     }
     
-    private void findCallersRecursively(CallGraphNode targetNode, Map<String, CallGraphNode> allNodes, 
-                                       Set<String> visited, int depth, int maxDepth) {
-        if (depth >= maxDepth || visited.contains(targetNode.fullSignature)) {
-            return;
+    /**
+     * Get load and warm-up progress
+     */
+    public Map<String, Object> getLoadStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("loaded", isLoaded());
+        status.put("apkPath", apkPath);
+        status.put("totalClasses", symbols != null ? symbols.getClassCount() : 0);
+        status.put("codeIndexClasses", codeIndex.getDocumentCount());
+        Predecompiler warmup = predecompiler;
+        status.put("warmup", warmup != null ? warmup.getStatus() : null);
+        return status;
+    }
+    
+    /**
+     * Suggest method and/or class names close to a possibly misspelled symbol.
+     * kind is "method", "class" or null for both. Qualified names are reduced to
+     * their last segment; descriptors are ignored. The edit-distance indexes are
+     * built on first use.
+     */
+    public List<Map<String, Object>> suggestSymbols(String query, String kind, int limit) {
+        checkLoaded();
+        if (kind != null && !kind.equalsIgnoreCase("method") && !kind.equalsIgnoreCase("class")) {
+            throw new RuntimeException("Invalid symbol kind: " + kind + " (expected method or class)");
+        }
+        String name = simpleSymbolName(query);
+        int maxDistance = FuzzyNameIndex.defaultMaxDistance(name);
+        List<Map<String, Object>> results = new ArrayList<>();
+
+        if (kind == null || kind.equalsIgnoreCase("method")) {
+            for (FuzzyNameIndex.Suggestion suggestion : getMethodSuggestions().search(name, maxDistance, limit)) {
+                results.add(suggestionToMap(suggestion, "method"));
+            }
         }
+        if (kind == null || kind.equalsIgnoreCase("class")) {
+            for (FuzzyNameIndex.Suggestion suggestion : getClassSuggestions().search(name, maxDistance, limit)) {
+                results.add(suggestionToMap(suggestion, "class"));
+            }
+        }
+
+        results.sort(Comparator.comparingInt((Map<String, Object> m) -> (Integer) m.get("distance"))
+            .thenComparing(m -> (String) m.get("name")));
+        return results.size() > limit ? new ArrayList<>(results.subList(0, limit)) : results;
+    }
+    
+    /**
+     * Search decompiled code for a literal string or regular expression.
+     * Classes that have not been decompiled yet are decompiled and indexed first;
+     * after that only classes containing the query's trigrams are scanned.
+     */
+    public CodeSearchResult searchCode(String query, boolean regex, int maxResults) {
+        return searchCode(query, regex, maxResults, Deadline.none());
+    }
+    
+    /**
+     * Search code as above, stopping once the deadline expires. A search stopped while
+     * classes were still being decompiled has only looked at the classes indexed so far.
+     */
+    public CodeSearchResult searchCode(String query, boolean regex, int maxResults, Deadline deadline) {
+        checkLoaded();
+        if (query == null || query.isEmpty()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        Pattern pattern = regex ? Pattern.compile(query) : null;
         
-        visited.add(targetNode.fullSignature);
-        allNodes.put(targetNode.fullSignature, targetNode);
+        indexAllClasses(deadline);
         
-        // Search all classes for methods that call this target
-        for (JavaClass javaClass : jadx.getClasses()) {
-            String classCode = javaClass.getCode();
-            
-            // Quick check if this class might contain calls to our target method
-            if (!classCode.contains(targetNode.methodName)) {
+        List<String> candidates = codeIndex.getCandidates(CodeSearchIndex.getRequiredLiterals(query, regex));
+        Collections.sort(candidates);
+        
+        List<CodeMatch> matches = new ArrayList<>();
+        String stopReason = deadline.getReason();
+        
+        for (int i = 0; i < candidates.size() && stopReason == null; i++) {
+            String className = candidates.get(i);
+            JavaClass javaClass = findClass(className);
+            String code = javaClass != null ? getCode(javaClass) : null;
+            if (code == null) {
                 continue;
             }
-            
-            // Check each method in this class
-            for (JavaMethod method : javaClass.getMethods()) {
-                if (methodCallsTarget(javaClass, method, targetNode)) {
-                    CallGraphNode callerNode = allNodes.computeIfAbsent(
-                        javaClass.getFullName() + "." + method.getName(),
-                        k -> new CallGraphNode(javaClass.getFullName(), method.getName())
-                    );
-                    
-                    targetNode.callers.add(callerNode);
-                    
-                    // Recursively find callers of this caller
-                    findCallersRecursively(callerNode, allNodes, visited, depth + 1, maxDepth);
+            try {
+                if (!findMatches(className, code, query, pattern, deadline, matches, maxResults)) {
+                    stopReason = "maxResults";
                 }
+            } catch (CancellationException e) {
+                // A regex ran past the deadline; keep the matches found so far
+                stopReason = deadline.getReason();
+            }
+            if (stopReason == null && i + 1 < candidates.size()) {
+                stopReason = deadline.getReason();
             }
         }
+        
+        return new CodeSearchResult(matches, candidates.size(), codeIndex.getDocumentCount(), stopReason);
     }
     
-    private boolean methodCallsTarget(JavaClass callerClass, JavaMethod callerMethod, CallGraphNode targetNode) {
-        try {
-            String methodCode = extractMethodCode(callerClass.getCode(), callerMethod.getName());
-            if (methodCode == null) {
-                return false;
+    /**
+     * Result class for code search
+     */
+    public static class CodeSearchResult {
+        public final List<CodeMatch> matches;
+        public final int candidateClasses;
+        public final int indexedClasses;
+        public final boolean truncated;
+        public final String stopReason;
+        
+        public CodeSearchResult(List<CodeMatch> matches, int candidateClasses, int indexedClasses, boolean truncated) {
+            this(matches, candidateClasses, indexedClasses, truncated ? "maxResults" : null);
+        }
+        
+        /**
+         * stopReason is why the search ended early ("maxResults", "deadline" or "cancelled"), or null
+         */
+        public CodeSearchResult(List<CodeMatch> matches, int candidateClasses, int indexedClasses, String stopReason) {
+            this.matches = matches;
+            this.candidateClasses = candidateClasses;
+            this.indexedClasses = indexedClasses;
+            this.truncated = stopReason != null;
+            this.stopReason = stopReason;
+        }
+        
+        public Map<String, Object> toMap() {
+            List<Map<String, Object>> matchMaps = new ArrayList<>();
+            for (CodeMatch match : matches) {
+                matchMaps.add(match.toMap());
             }
-            
-            // Check for method call patterns
-            // 1. Direct method call: methodName(
-            if (methodCode.contains(targetNode.methodName + "(")) {
-                return true;
+            Map<String, Object> map = new HashMap<>();
+            map.put("matches", matchMaps);
+            map.put("candidateClasses", candidateClasses);
+            map.put("indexedClasses", indexedClasses);
+            map.put("truncated", truncated);
+            if (stopReason != null) {
+                map.put("stopReason", stopReason);
             }
-            
-            // 2. Qualified call: ClassName.methodName( or object.methodName(
-            Pattern qualifiedCall = Pattern.compile("\\b\\w+\\." + Pattern.quote(targetNode.methodName) + "\\s*\\(");
-            if (qualifiedCall.matcher(methodCode).find()) {
-                return true;
+            return map;
+        }
+    }
+    
+    /**
+     * Result class for call graph analysis
+     */
+    public static class CallGraphResult {
+        public final boolean success;
+        public final String message;
+        public final Set<CallGraphNode> targetNodes;
+        public final Set<CallGraphNode> entryPoints;
+        public final Set<String> suggestions;
+        public final boolean truncated;
+        public final String stopReason;
+        
+        public CallGraphResult(boolean success, String message, Set<CallGraphNode> targetNodes, 
+                              Set<CallGraphNode> entryPoints, Set<String> suggestions) {
+            this(success, message, targetNodes, entryPoints, suggestions, null);
+        }
+        
+        public CallGraphResult(boolean success, String message, Set<CallGraphNode> targetNodes,
+                              Set<CallGraphNode> entryPoints, Set<String> suggestions, String stopReason) {
+            this.success = success;
+            this.message = message;
+            this.targetNodes = targetNodes;
+            this.entryPoints = entryPoints;
+            this.suggestions = suggestions;
+            this.truncated = stopReason != null;
+            this.stopReason = stopReason;
+        }
+    }
+    
+    // Private helper methods
+    
+    /**
+     * Get decompiled code of a class, adding it to the code search index on first access
+     */
+    private String getCode(JavaClass javaClass) {
+        // A class the warm-up has not reached yet is decompiled right here instead of waiting;
+        // one that is already cached is just read and leaves the warm-up counters alone.
+        // JADX caches code under the raw name of the top-level class, not the deobfuscated one.
+        Predecompiler warmup = predecompiler;
+        String cacheKey = javaClass.getClassNode().getTopParentClass().getRawName();
+        boolean claimed = warmup != null && !codeCache.contains(cacheKey)
+            && warmup.claimForRequest(javaClass.getFullName());
+        String code = null;
+        try {
+            code = decompileAndIndex(javaClass);
+            return code;
+        } finally {
+            if (claimed) {
+                warmup.complete(javaClass.getFullName(), code != null);
             }
-            
-            // 3. For specific patterns like WebView.loadUrl
-            if (targetNode.methodName.equals("loadUrl") && methodCode.toLowerCase().contains("webview")) {
-                Pattern webViewLoadUrl = Pattern.compile("\\bwebView\\w*\\.loadUrl\\s*\\(", Pattern.CASE_INSENSITIVE);
-                if (webViewLoadUrl.matcher(methodCode).find()) {
-                    return true;
-                }
+        }
+    }
+    
+    private String decompileAndIndex(JavaClass javaClass) {
+        String code = javaClass.getCode();
+        if (code != null && !codeIndex.contains(javaClass.getFullName())) {
+            codeIndex.add(javaClass.getFullName(), code);
+        }
+        return code;
+    }
+    
+    private void indexAllClasses(Deadline deadline) {
+        for (JavaClass javaClass : symbols.getClasses()) {
+            if (deadline.isExpired()) {
+                return;
+            }
+            if (!codeIndex.contains(javaClass.getFullName())) {
+                getCode(javaClass);
             }
-            
-        } catch (Exception e) {
-            // Silently ignore parsing errors
         }
-        
-        return false;
     }
     
-    private Set<CallGraphNode> findEntryPoints(Set<CallGraphNode> targetNodes, Map<String, CallGraphNode> allNodes) {
-        Set<CallGraphNode> entryPoints = new HashSet<>();
+    /**
+     * Collect matching lines of one class; returns false once maxResults is reached
+     */
+    private boolean findMatches(String className, String code, String query, Pattern pattern, Deadline deadline,
+                                List<CodeMatch> matches, int maxResults) {
+        int lineNumber = 1;
+        int lineCountedTo = 0;
+        int pos = 0;
+        Matcher matcher = pattern != null ? pattern.matcher(deadline.guard(code)) : null;
         
-        // A node is an entry point if no other nodes in the graph call it
-        for (CallGraphNode node : allNodes.values()) {
-            boolean isEntry = true;
-            
-            for (CallGraphNode other : allNodes.values()) {
-                if (other != node && other.callers.contains(node)) {
-                    isEntry = false;
+        while (pos <= code.length()) {
+            int matchStart;
+            if (matcher != null) {
+                if (!matcher.find(pos)) {
                     break;
                 }
+                matchStart = matcher.start();
+            } else {
+                matchStart = code.indexOf(query, pos);
+                if (matchStart == -1) {
+                    break;
+                }
+            }
+            
+            for (int i = lineCountedTo; i < matchStart; i++) {
+                if (code.charAt(i) == '\n') {
+                    lineNumber++;
+                }
             }
+            lineCountedTo = matchStart;
             
-            if (isEntry && !targetNodes.contains(node)) {
-                entryPoints.add(node);
+            int lineStart = code.lastIndexOf('\n', matchStart - 1) + 1;
+            int lineEnd = code.indexOf('\n', matchStart);
+            if (lineEnd == -1) {
+                lineEnd = code.length();
+            }
+            
+            if (matches.size() >= maxResults) {
+                return false;
             }
+            matches.add(new CodeMatch(className, lineNumber, code.substring(lineStart, lineEnd).trim()));
+            
+            // One match per line
+            pos = lineEnd + 1;
         }
         
-        return entryPoints;
+        return true;
     }
     
-    private Set<String> getSimilarMethods(String targetMethod) {
-        Set<String> suggestions = new HashSet<>();
-        
-        for (JavaClass javaClass : jadx.getClasses()) {
-            for (JavaMethod method : javaClass.getMethods()) {
-                if (method.getName().toLowerCase().contains(targetMethod.toLowerCase())) {
-                    suggestions.add(method.getName());
-                    if (suggestions.size() >= 10) {
-                        return suggestions;
+    private void loadManifest() {
+        ResourceFile resource = resources.get("AndroidManifest.xml");
+        if (resource != null) {
+            try {
+                ResContainer resContainer = resource.loadContent();
+                if (resContainer != null) {
+                    ICodeInfo codeInfo = resContainer.getText();
+                    if (codeInfo != null) {
+                        manifestContent = codeInfo.toString();
+                    } else if (resContainer.getDecodedData() != null) {
+                        manifestContent = new String(resContainer.getDecodedData());
                     }
                 }
+            } catch (Exception e) {
+                throw new RuntimeException("Error loading manifest: " + e.getMessage(), e);
             }
         }
         
-        return suggestions;
+        if (manifestContent != null) {
+            try {
+                manifest = ManifestParser.parse(manifestContent);
+            } catch (Exception e) {
+                // Keep the text (often decoder error output) and an empty model rather than failing the load
+                manifestError = e.getMessage();
+                manifest = new AppManifest("", null, null, null, null,
+                    Collections.emptyList(), Collections.emptyMap(), Collections.emptyList());
+                System.err.println("Warning: could not parse AndroidManifest.xml of " + apkPath + ": " + manifestError);
+            }
+        }
     }
     
-    private List<ExportedComponent> parseManifest(String manifestXml) {
-        List<ExportedComponent> components = new ArrayList<>();
-        
-        try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document doc = builder.parse(new InputSource(new StringReader(manifestXml)));
-            doc.getDocumentElement().normalize();
-            
-            // Get package name
-            String packageName = doc.getDocumentElement().getAttribute("package");
-            
-            // Component types to check
-            String[] componentTypes = {"activity", "service", "receiver", "provider"};
-            
-            for (String componentType : componentTypes) {
-                NodeList nodeList = doc.getElementsByTagName(componentType);
-                
-                for (int i = 0; i < nodeList.getLength(); i++) {
-                    Node node = nodeList.item(i);
-                    
-                    if (node.getNodeType() == Node.ELEMENT_NODE) {
-                        Element element = (Element) node;
-                        ExportedComponent component = analyzeComponent(element, componentType, packageName);
-                        
-                        if (component != null && component.exported) {
-                            components.add(component);
-                        }
-                    }
-                }
+    private JavaClass findClass(String className) {
+        return symbols.getClass(className);
+    }
+    
+    private static boolean inPackages(String packageName, List<String> packages) {
+        for (String prefix : packages) {
+            if (packageName.equals(prefix) || packageName.startsWith(prefix + ".")) {
+                return true;
             }
-            
+        }
+        return false;
+    }
+    
+    private static int getWarmupThreads() {
+        String configured = System.getProperty(WARMUP_THREADS_PROPERTY);
+        if (configured != null) {
+            try {
+                return Math.max(1, Integer.parseInt(configured.trim()));
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid " + WARMUP_THREADS_PROPERTY + ": " + configured);
+            }
+        }
+        return Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    }
+    
+    /**
+     * The decompiled code cache budget in bytes: CODE_CACHE_MB_PROPERTY, or a quarter of the maximum heap
+     */
+    public static long getDefaultCodeCacheBudget() {
+        String configured = System.getProperty(CODE_CACHE_MB_PROPERTY);
+        if (configured != null) {
+            try {
+                return Long.parseLong(configured.trim()) * 1024 * 1024;
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid " + CODE_CACHE_MB_PROPERTY + ": " + configured);
+            }
+        }
+        return Math.max(64L * 1024 * 1024, Runtime.getRuntime().maxMemory() / 4);
+    }
+    
+    /**
+     * The decompiler version and settings that affect generated code
+     */
+    private static String describeSettings(JadxArgs jadxArgs) {
+        return "jadx=" + JadxDecompiler.getVersion()
+            + ",deobfuscation=" + jadxArgs.isDeobfuscationOn()
+            + ",deobfuscationMinLength=" + jadxArgs.getDeobfuscationMinLength()
+            + ",deobfuscationMaxLength=" + jadxArgs.getDeobfuscationMaxLength();
+    }
+    
+    /**
+     * SHA-256 of the APK, computed on first use unless it was passed in
+     */
+    private synchronized String getApkSha256() throws IOException {
+        if (apkSha256 == null) {
+            apkSha256 = DiskCodeCache.sha256(new File(apkPath));
+        }
+        return apkSha256;
+    }
+    
+    /**
+     * Opaque validator (entity tag) for a response about this APK: a hash of the APK's
+     * content, the decompiler settings and the resource the response describes (e.g. an
+     * endpoint with its class name and parameters). It does not depend on decompiled code,
+     * so it can be checked before anything is decompiled.
+     */
+    public String getEntityTag(String resource) {
+        checkLoaded();
+        try {
+            return DiskCodeCache.sha256(getApkSha256() + "\n" + decompilerSettings + "\n" + resource).substring(0, 32);
+        } catch (IOException e) {
+            throw new RuntimeException("Error hashing APK: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Open the persistent cache for this APK and decompiler settings; null if disabled or unavailable
+     */
+    private DiskCodeCache openDiskCache() {
+        if ("false".equalsIgnoreCase(System.getProperty(DISK_CACHE_ENABLED_PROPERTY))) {
+            return null;
+        }
+        String directory = System.getProperty(DISK_CACHE_DIR_PROPERTY,
+            System.getProperty("user.home") + File.separator + ".cache" + File.separator + "jadx-mcp-server");
+        try {
+            return DiskCodeCache.open(new File(directory).toPath(), getApkSha256(), decompilerSettings);
         } catch (Exception e) {
-            throw new RuntimeException("Error parsing manifest: " + e.getMessage(), e);
+            System.err.println("Disk code cache disabled: " + e.getMessage());
+            return null;
         }
-        
-        return components;
     }
     
-    private ExportedComponent analyzeComponent(Element element, String type, String packageName) {
-        ExportedComponent component = new ExportedComponent();
-        component.type = type;
-        
-        // Get component name
-        String name = element.getAttribute("android:name");
-        if (name.startsWith(".")) {
-            name = packageName + name;
-        } else if (!name.contains(".")) {
-            name = packageName + "." + name;
+    /**
+     * Get the method offset table of a class's code, kept in the code cache next to the code.
+     * Code served from a disk cache entry without a table is decompiled once more.
+     */
+    private MethodOffsetTable getMethodOffsets(JavaClass javaClass) {
+        ClassNode topClass = javaClass.getClassNode().getTopParentClass();
+        getCode(javaClass);
+        MethodOffsetTable methods = codeCache.getMethodOffsets(topClass.getRawName());
+        if (methods == null) {
+            methods = MethodOffsetTable.build(topClass.reloadCode());
         }
-        component.name = name;
-        
-        // Check if explicitly exported
-        String exportedAttr = element.getAttribute("android:exported");
-        boolean hasIntentFilter = hasIntentFilter(element);
-        
-        if ("true".equals(exportedAttr)) {
-            component.exported = true;
-        } else if ("false".equals(exportedAttr)) {
-            component.exported = false;
-        } else {
-            // If not explicitly set, components with intent-filters are exported by default
-            component.exported = hasIntentFilter;
+        return methods;
+    }
+    
+    /**
+     * Get the indexed smali of a class: from the code cache's memory tier, else from the
+     * persistent cache, else disassembled; indexed once and kept in memory
+     */
+    private SmaliMethodIndex getSmali(JavaClass javaClass) {
+        String rawName = javaClass.getClassNode().getRawName();
+        SmaliMethodIndex index = codeCache.getSmali(rawName);
+        if (index != null) {
+            return index;
         }
-        
-        // Get permission if any
-        component.permission = element.getAttribute("android:permission");
-        
-        // Extract intent filters
-        NodeList intentFilters = element.getElementsByTagName("intent-filter");
-        for (int i = 0; i < intentFilters.getLength(); i++) {
-            Node filterNode = intentFilters.item(i);
-            if (filterNode.getNodeType() == Node.ELEMENT_NODE) {
-                String filterDesc = extractIntentFilter((Element) filterNode);
-                if (!filterDesc.isEmpty()) {
-                    component.intentFilters.add(filterDesc);
-                }
+        DiskCodeCache diskCache = codeCache.getDiskCache();
+        String smali = diskCache != null ? diskCache.get(DiskCodeCache.Kind.SMALI, rawName) : null;
+        if (smali == null) {
+            smali = javaClass.getSmali();
+            if (smali == null) {
+                return null;
+            }
+            if (diskCache != null) {
+                diskCache.put(DiskCodeCache.Kind.SMALI, rawName, smali);
             }
         }
-        
-        return component;
+        index = SmaliMethodIndex.build(smali);
+        codeCache.addSmali(rawName, index);
+        return index;
     }
     
-    private boolean hasIntentFilter(Element element) {
-        NodeList intentFilters = element.getElementsByTagName("intent-filter");
-        return intentFilters.getLength() > 0;
+    /**
+     * Original (smali) name of a method given by its name in the decompiled code;
+     * names that are not a renamed method of the class or its nested classes are returned as is
+     */
+    private static String originalMethodName(JavaClass javaClass, String name) {
+        for (JavaMethod method : javaClass.getMethods()) {
+            if (method.getName().equals(name)) {
+                return method.getMethodNode().getMethodInfo().getName();
+            }
+        }
+        for (JavaClass inner : javaClass.getInnerClasses()) {
+            String original = originalMethodName(inner, name);
+            if (!original.equals(name)) {
+                return original;
+            }
+        }
+        return name;
     }
     
-    private String extractIntentFilter(Element intentFilter) {
-        StringBuilder sb = new StringBuilder();
-        
-        // Extract actions
-        NodeList actions = intentFilter.getElementsByTagName("action");
-        for (int i = 0; i < actions.getLength(); i++) {
-            Element action = (Element) actions.item(i);
-            String actionName = action.getAttribute("android:name");
-            if (!actionName.isEmpty()) {
-                if (sb.length() > 0) sb.append(", ");
-                sb.append("Action: ").append(actionName);
-            }
+    private Set<String> getSimilarMethods(String targetMethod) {
+        String name = simpleSymbolName(targetMethod);
+        Set<String> suggestions = new LinkedHashSet<>();
+        for (FuzzyNameIndex.Suggestion suggestion : getMethodSuggestions().search(name, FuzzyNameIndex.defaultMaxDistance(name), MAX_SUGGESTIONS)) {
+            suggestions.add(suggestion.value);
         }
-        
-        // Extract categories
-        NodeList categories = intentFilter.getElementsByTagName("category");
-        for (int i = 0; i < categories.getLength(); i++) {
-            Element category = (Element) categories.item(i);
-            String categoryName = category.getAttribute("android:name");
-            if (!categoryName.isEmpty()) {
-                if (sb.length() > 0) sb.append(", ");
-                sb.append("Category: ").append(categoryName);
+        return suggestions;
+    }
+    
+    /**
+     * Edit-distance index over all method names in the call graph (app and framework)
+     */
+    private FuzzyNameIndex getMethodSuggestions() {
+        FuzzyNameIndex index = methodSuggestions;
+        if (index == null) {
+            CallGraphIndex callGraphIndex = getCallGraphIndex();
+            synchronized (this) {
+                index = methodSuggestions;
+                if (index == null) {
+                    FuzzyNameIndex.Builder builder = FuzzyNameIndex.builder();
+                    for (String methodName : callGraphIndex.getMethodNames()) {
+                        builder.add(methodName, methodName);
+                    }
+                    index = builder.build();
+                    methodSuggestions = index;
+                }
             }
         }
-        
-        // Extract data elements
-        NodeList dataElements = intentFilter.getElementsByTagName("data");
-        for (int i = 0; i < dataElements.getLength(); i++) {
-            Element data = (Element) dataElements.item(i);
-            String scheme = data.getAttribute("android:scheme");
-            String host = data.getAttribute("android:host");
-            String path = data.getAttribute("android:path");
-            String mimeType = data.getAttribute("android:mimeType");
-            
-            if (!scheme.isEmpty() || !host.isEmpty() || !path.isEmpty() || !mimeType.isEmpty()) {
-                if (sb.length() > 0) sb.append(", ");
-                sb.append("Data: ");
-                if (!scheme.isEmpty()) sb.append("scheme=").append(scheme).append(" ");
-                if (!host.isEmpty()) sb.append("host=").append(host).append(" ");
-                if (!path.isEmpty()) sb.append("path=").append(path).append(" ");
-                if (!mimeType.isEmpty()) sb.append("mimeType=").append(mimeType);
+        return index;
+    }
+    
+    /**
+     * Edit-distance index over simple class names; values are full class names
+     */
+    private FuzzyNameIndex getClassSuggestions() {
+        FuzzyNameIndex index = classSuggestions;
+        if (index == null) {
+            synchronized (this) {
+                index = classSuggestions;
+                if (index == null) {
+                    FuzzyNameIndex.Builder builder = FuzzyNameIndex.builder();
+                    for (JavaClass javaClass : symbols.getClasses()) {
+                        builder.add(javaClass.getName(), javaClass.getFullName());
+                    }
+                    index = builder.build();
+                    classSuggestions = index;
+                }
             }
         }
-        
-        return sb.toString();
+        return index;
+    }
+    
+    private static Map<String, Object> suggestionToMap(FuzzyNameIndex.Suggestion suggestion, String kind) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("name", suggestion.value);
+        map.put("kind", kind);
+        map.put("distance", suggestion.distance);
+        return map;
+    }
+    
+    /**
+     * Reduce a symbol like android.webkit.WebView.loadUrl(Ljava/lang/String;)V to loadUrl
+     */
+    private static String simpleSymbolName(String symbol) {
+        int paren = symbol.indexOf('(');
+        String name = paren != -1 ? symbol.substring(0, paren) : symbol;
+        return name.substring(name.lastIndexOf('.') + 1);
     }
     
     /**
@@ -781,43 +1292,122 @@ public class JadxAnalyzerCore {
      */
     public List<String> getAllResourceFileNames() {
         checkLoaded();
-        List<String> resourceNames = new ArrayList<>();
+        return resources.getNames();
+    }
+    
+    /**
+     * Get resource file names under a directory prefix and/or matching a glob
+     * (* within a path segment, ** across segments); null filters match everything
+     */
+    public List<String> getResourceFileNames(String prefix, String glob) {
+        checkLoaded();
+        return resources.list(prefix, glob);
+    }
+    
+    /**
+     * Get content of a specific resource file as text; binary XML and resources.arsc are decoded
+     */
+    public String getResourceFile(String fileName) {
+        checkLoaded();
         
-        List<ResourceFile> resources = jadx.getResources();
-        for (ResourceFile resource : resources) {
-            resourceNames.add(resource.getOriginalName());
+        try {
+            return resources.getContent(fileName);
+        } catch (Exception e) {
+            throw new RuntimeException("Error loading resource file: " + fileName + " - " + e.getMessage(), e);
         }
-        
-        Collections.sort(resourceNames);
-        return resourceNames;
     }
     
     /**
-     * Get content of a specific resource file
+     * Read one chunk of a resource file. Text resources (including decoded binary XML) are
+     * paged by characters; binary files by bytes, returned base64-encoded and read straight
+     * from the APK. Returns null if there is no such resource.
      */
-    public String getResourceFile(String fileName) {
+    public Map<String, Object> readResource(String fileName, long offset, int length) {
         checkLoaded();
+        if (offset < 0) {
+            throw new RuntimeException("offset must not be negative");
+        }
+        int chunk = length > 0 ? Math.min(length, MAX_RESOURCE_CHUNK) : DEFAULT_RESOURCE_CHUNK;
         
-        List<ResourceFile> resources = jadx.getResources();
-        for (ResourceFile resource : resources) {
-            if (resource.getOriginalName().equals(fileName)) {
-                try {
-                    // Try using getZipEntry first
-                    IZipEntry zipEntry = resource.getZipEntry();
-                    if (zipEntry != null) {
-                        // Read data directly from zip entry
-                        byte[] data = zipEntry.getInputStream().readAllBytes();
-                        if (data != null) {
-                            return new String(data, "UTF-8");
-                        }
-                    }
-                } catch (Exception e) {
-                    throw new RuntimeException("Error loading resource file: " + fileName + " - " + e.getMessage(), e);
+        Map<String, Object> result = new HashMap<>();
+        result.put("fileName", fileName);
+        result.put("offset", offset);
+        try {
+            if (resources.get(fileName) == null) {
+                return null;
+            }
+            String text = resources.getText(fileName);
+            long total;
+            long end;
+            if (text != null) {
+                total = text.length();
+                end = Math.min(total, offset + chunk);
+                result.put("encoding", "text");
+                result.put("content", offset < end ? text.substring((int) offset, (int) end) : "");
+            } else {
+                total = resources.getSize(fileName);
+                byte[] data = readResourceBytes(fileName, offset, chunk);
+                end = offset + data.length;
+                result.put("encoding", "base64");
+                result.put("content", Base64.getEncoder().encodeToString(data));
+            }
+            result.put("length", Math.max(0, end - offset));
+            result.put("totalLength", total);
+            boolean hasMore = end < total;
+            result.put("hasMore", hasMore);
+            if (hasMore) {
+                result.put("nextOffset", end);
+            }
+            return result;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Error reading resource file: " + fileName + " - " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Uncompressed size of a resource file, or -1 if unknown
+     */
+    public long getResourceSize(String fileName) {
+        checkLoaded();
+        return resources.getSize(fileName);
+    }
+    
+    /**
+     * Stream the raw bytes of a resource file from the APK; null if there is no such resource.
+     * The caller closes the stream, and must keep the analyzer open until it has.
+     */
+    public InputStream openResourceStream(String fileName) {
+        checkLoaded();
+        return resources.open(fileName);
+    }
+    
+    private byte[] readResourceBytes(String fileName, long offset, int length) throws IOException {
+        try (InputStream in = resources.open(fileName)) {
+            if (in == null) {
+                return new byte[0];
+            }
+            skipFully(in, offset);
+            return in.readNBytes(length);
+        }
+    }
+    
+    /**
+     * Skip bytes of a stream (InputStream.skip may skip fewer); stops early at the end of the stream
+     */
+    public static void skipFully(InputStream in, long count) throws IOException {
+        long remaining = count;
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    return;
                 }
+                skipped = 1;
             }
+            remaining -= skipped;
         }
-        
-        return null;
     }
     
     /**
@@ -826,46 +1416,129 @@ public class JadxAnalyzerCore {
     public String getSmaliOfClass(String className) {
         checkLoaded();
         
-        for (JavaClass javaClass : jadx.getClasses()) {
-            if (javaClass.getFullName().equals(className)) {
-                try {
-                    return javaClass.getSmali();
-                } catch (Exception e) {
-                    throw new RuntimeException("Error getting smali for class: " + className + " - " + e.getMessage(), e);
-                }
-            }
+        JavaClass javaClass = findClass(className);
+        if (javaClass == null) {
+            return null;
         }
         
-        return null;
+        try {
+            SmaliMethodIndex smali = getSmali(javaClass);
+            return smali != null ? smali.getSmali() : null;
+        } catch (Exception e) {
+            throw new RuntimeException("Error getting smali for class: " + className + " - " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Read a line-aligned chunk of a class's smali, as readClassSource does for its source.
+     * Returns null if the class is not found or smali is not available.
+     */
+    public Map<String, Object> readSmaliOfClass(String className, int startLine, int endLine, int maxChars) {
+        checkLoaded();
+        
+        JavaClass javaClass = findClass(className);
+        if (javaClass == null) {
+            return null;
+        }
+        
+        SmaliMethodIndex smali;
+        try {
+            smali = getSmali(javaClass);
+        } catch (Exception e) {
+            throw new RuntimeException("Error getting smali for class: " + className + " - " + e.getMessage(), e);
+        }
+        return smali != null ? toChunkMap(className, smali.getLines(), startLine, endLine, maxChars) : null;
     }
     
     /**
      * Get smali code of a specific method
      */
     public String getSmaliOfMethod(String className, String methodName) {
+        return getSmaliOfMethod(className, methodName, null);
+    }
+    
+    /**
+     * Get smali code of a specific method, selecting an overload by descriptor prefix
+     * (e.g. "(Ljava/lang/String;)" or "(I)V"); methodName may also be given as "name(descriptor)".
+     * Without a descriptor the first overload is returned.
+     */
+    public String getSmaliOfMethod(String className, String methodName, String descriptor) {
         checkLoaded();
         
-        for (JavaClass javaClass : jadx.getClasses()) {
-            if (javaClass.getFullName().equals(className)) {
-                try {
-                    String classSmali = javaClass.getSmali();
-                    if (classSmali != null) {
-                        return extractMethodSmali(classSmali, methodName);
-                    }
-                } catch (Exception e) {
-                    throw new RuntimeException("Error getting smali for method: " + methodName + " in class: " + className + " - " + e.getMessage(), e);
-                }
-                break;
+        JavaClass javaClass = findClass(className);
+        if (javaClass == null) {
+            return null;
+        }
+        
+        String name = methodName;
+        int paren = methodName.indexOf('(');
+        if (paren >= 0) {
+            name = methodName.substring(0, paren);
+            if (descriptor == null || descriptor.isEmpty()) {
+                descriptor = methodName.substring(paren);
+            }
+        }
+        if (descriptor != null && descriptor.isEmpty()) {
+            descriptor = null;
+        }
+        
+        SmaliMethodIndex smali;
+        try {
+            smali = getSmali(javaClass);
+        } catch (Exception e) {
+            throw new RuntimeException("Error getting smali for method: " + methodName + " in class: " + className + " - " + e.getMessage(), e);
+        }
+        if (smali == null) {
+            return null;
+        }
+        
+        String owner = javaClass.getFullName();
+        String original = smali.getDescriptors(owner, name).isEmpty() ? originalMethodName(javaClass, name) : name;
+        int index = smali.find(owner, original, descriptor);
+        if (index < 0) {
+            List<String> overloads = smali.getDescriptors(owner, original);
+            if (descriptor != null && !overloads.isEmpty()) {
+                throw new RuntimeException("No overload of " + name + " matches " + descriptor
+                    + "; available: " + String.join(", ", overloads));
             }
+            return null;
         }
+        return smali.getSmali(index);
+    }
+    
+    /**
+     * List the descriptors of every overload of a method (including those of nested
+     * classes with the same name), in declaration order; null if the class is not found
+     */
+    public List<String> getMethodOverloads(String className, String methodName) {
+        checkLoaded();
         
-        return null;
+        JavaClass javaClass = findClass(className);
+        if (javaClass == null) {
+            return null;
+        }
+        
+        try {
+            SmaliMethodIndex smali = getSmali(javaClass);
+            if (smali == null) {
+                return Collections.emptyList();
+            }
+            String owner = javaClass.getFullName();
+            List<String> overloads = smali.getDescriptors(owner, methodName);
+            return overloads.isEmpty() ? smali.getDescriptors(owner, originalMethodName(javaClass, methodName)) : overloads;
+        } catch (Exception e) {
+            throw new RuntimeException("Error listing overloads of: " + methodName + " in class: " + className + " - " + e.getMessage(), e);
+        }
     }
 
     /**
      * Close the analyzer and free resources
      */
     public void close() {
+        stopWarmup();
+        if (resources != null) {
+            resources.clear();
+        }
         if (jadx != null) {
             try {
                 jadx.close();
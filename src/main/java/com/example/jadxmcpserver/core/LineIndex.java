@@ -0,0 +1,118 @@
+package com.example.jadxmcpserver.core;
+
+import java.util.List;
+
+/**
+ * Line Index - Start offset of every line of a text, for cutting it into line-aligned chunks
+ * Built in one pass over the text; after that, finding where a line starts is an array
+ * read and finding how many lines fit a character budget is a binary search over the
+ * starts, so paging through a multi-megabyte class never re-splits its source.
+ * An index keeps the text it was built for, so slices always match its offsets.
+ */
+public class LineIndex {
+
+    private static final int ENTRY_OVERHEAD = 32;
+
+    private final String text;
+    private final int[] starts;
+
+    private LineIndex(String text, int[] starts) {
+        this.text = text;
+        this.starts = starts;
+    }
+
+    public static LineIndex build(String text) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n' && i + 1 < text.length()) {
+                count++;
+            }
+        }
+        int[] starts = new int[text.isEmpty() ? 0 : count + 1];
+        int line = 0;
+        if (starts.length > 0) {
+            starts[line++] = 0;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n' && i + 1 < text.length()) {
+                starts[line++] = i + 1;
+            }
+        }
+        return new LineIndex(text, starts);
+    }
+
+    /**
+     * Wrap line starts already collected by another pass over the text
+     */
+    static LineIndex of(String text, List<Integer> lineStarts) {
+        int[] starts = new int[lineStarts.size()];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = lineStarts.get(i);
+        }
+        return new LineIndex(text, starts);
+    }
+
+    /**
+     * A line-aligned slice of the text: lines [startLine, endLine], 1-based and inclusive
+     */
+    public static class Chunk {
+        public final String content;
+        public final int startLine;
+        public final int endLine;
+
+        Chunk(String content, int startLine, int endLine) {
+            this.content = content;
+            this.startLine = startLine;
+            this.endLine = endLine;
+        }
+    }
+
+    /**
+     * Cut lines from startLine through at most endLine (0 = the last line), stopping at the
+     * last whole line that keeps the chunk within maxChars (0 = no limit). A chunk always
+     * holds at least one line, so a single line longer than maxChars is returned whole.
+     * Returns an empty chunk if startLine is past the last line.
+     */
+    public Chunk chunk(int startLine, int endLine, int maxChars) {
+        int from = Math.max(1, startLine);
+        int to = endLine > 0 ? Math.min(endLine, starts.length) : starts.length;
+        if (from > to) {
+            return new Chunk("", from, from - 1);
+        }
+        if (maxChars > 0) {
+            // Last line in [from, to] that ends within the budget
+            long limit = (long) starts[from - 1] + maxChars;
+            int low = from;
+            int high = to;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (lineEnd(mid) <= limit) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            to = low;
+        }
+        return new Chunk(text.substring(starts[from - 1], lineEnd(to)), from, to);
+    }
+
+    /**
+     * Offset just past a 1-based line, including its line break
+     */
+    private int lineEnd(int line) {
+        return line < starts.length ? starts[line] : text.length();
+    }
+
+    public int getLineCount() {
+        return starts.length;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public long getEstimatedBytes() {
+        return ENTRY_OVERHEAD + 4L * starts.length;
+    }
+}
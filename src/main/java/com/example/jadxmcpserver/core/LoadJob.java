@@ -0,0 +1,108 @@
+package com.example.jadxmcpserver.core;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Load Job - Loads an APK on a background thread so callers are not held for the whole load
+ * The task receives the job's LoadProgress and returns the load result (which names the
+ * new session). A job is RUNNING until it is DONE, FAILED or CANCELLED; cancelling marks
+ * the progress and interrupts the loader so blocking I/O is abandoned as well.
+ */
+public class LoadJob {
+
+    public enum State {
+        RUNNING, DONE, FAILED, CANCELLED
+    }
+
+    public final String id;
+    public final String apkPath;
+    private final LoadProgress progress = new LoadProgress();
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private final Thread thread;
+    private volatile State state = State.RUNNING;
+    private volatile Map<String, Object> result;
+    private volatile String error;
+
+    LoadJob(String id, String apkPath, Function<LoadProgress, Map<String, Object>> task) {
+        this.id = id;
+        this.apkPath = apkPath;
+        this.thread = new Thread(() -> run(task), "jadx-load-" + id);
+        thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    private void run(Function<LoadProgress, Map<String, Object>> task) {
+        try {
+            result = task.apply(progress);
+            state = State.DONE;
+        } catch (RuntimeException e) {
+            if (progress.isCancelled() || e instanceof CancellationException) {
+                state = State.CANCELLED;
+            } else {
+                error = e.getMessage();
+                state = State.FAILED;
+            }
+        } finally {
+            progress.finish();
+            finished.countDown();
+        }
+    }
+
+    /**
+     * Ask the job to stop; returns false if it had already finished
+     */
+    public boolean cancel() {
+        if (state != State.RUNNING) {
+            return false;
+        }
+        progress.cancel();
+        thread.interrupt();
+        return true;
+    }
+
+    /**
+     * Wait up to timeoutMs for the job to finish; returns whether it has
+     */
+    public boolean await(long timeoutMs) {
+        try {
+            return finished.await(Math.max(0, timeoutMs), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return state != State.RUNNING;
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Load result once DONE, else null
+     */
+    public Map<String, Object> getResult() {
+        return result;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("job", id);
+        map.put("apkPath", apkPath);
+        map.put("state", state.name().toLowerCase(Locale.ROOT));
+        map.putAll(progress.toMap());
+        Map<String, Object> loaded = result;
+        if (loaded != null) {
+            map.put("session", loaded.get("session"));
+        }
+        if (error != null) {
+            map.put("error", error);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.jadxmcpserver.core;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Load Progress - Phases of loading one APK with their timings, and its cancellation flag
+ * The loader calls start() as it enters each phase; that is also where a cancellation
+ * takes effect, by throwing CancellationException. JADX's own input loading (zip scan
+ * and dex parsing) runs as one call, so it is one phase; a cancel that arrives during it
+ * ends the load at the next phase boundary at the latest.
+ */
+public class LoadProgress {
+
+    public enum Phase {
+        HASH("hash"),
+        DEX("zip scan and dex parse"),
+        INDEXING("indexing"),
+        RESOURCES("resources"),
+        MANIFEST("manifest");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private final long startedAt = System.currentTimeMillis();
+    private final EnumMap<Phase, long[]> timings = new EnumMap<>(Phase.class);
+    private Phase current;
+    private long finishedAt;
+    private volatile boolean cancelled;
+
+    /**
+     * Enter a phase, ending the previous one; throws if the load has been cancelled
+     */
+    public void start(Phase phase) {
+        checkCancelled();
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            endCurrent(now);
+            current = phase;
+            timings.put(phase, new long[] {now, 0});
+        }
+    }
+
+    /**
+     * End the last phase
+     */
+    public synchronized void finish() {
+        finishedAt = System.currentTimeMillis();
+        endCurrent(finishedAt);
+        current = null;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void checkCancelled() {
+        if (cancelled) {
+            throw new CancellationException("Load cancelled");
+        }
+    }
+
+    /**
+     * Current phase and the duration of every phase entered so far, in load order
+     */
+    public synchronized Map<String, Object> toMap() {
+        long now = System.currentTimeMillis();
+        List<Map<String, Object>> phases = new ArrayList<>();
+        for (Map.Entry<Phase, long[]> entry : timings.entrySet()) {
+            long[] timing = entry.getValue();
+            Map<String, Object> phase = new LinkedHashMap<>();
+            phase.put("phase", entry.getKey().getLabel());
+            phase.put("ms", (timing[1] > 0 ? timing[1] : now) - timing[0]);
+            phase.put("done", timing[1] > 0);
+            phases.add(phase);
+        }
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("phase", current != null ? current.getLabel() : null);
+        map.put("phases", phases);
+        map.put("elapsedMs", (finishedAt > 0 ? finishedAt : now) - startedAt);
+        return map;
+    }
+
+    private void endCurrent(long now) {
+        if (current != null) {
+            timings.get(current)[1] = now;
+        }
+    }
+}
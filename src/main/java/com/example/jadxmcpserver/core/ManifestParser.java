@@ -0,0 +1,220 @@
+package com.example.jadxmcpserver.core;
+
+import com.example.jadxmcpserver.model.AppManifest;
+import com.example.jadxmcpserver.model.IntentFilter;
+import com.example.jadxmcpserver.model.ManifestComponent;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.util.*;
+
+/**
+ * Manifest Parser - Builds the AppManifest model in a single streaming (StAX) pass
+ * Only the elements the model needs are looked at; nothing is kept of the document
+ * itself. The reader is not namespace aware: attributes are read by their android:
+ * prefix, so decoder output that uses the prefix without declaring the namespace
+ * still parses. Relative component names (".Foo", "Foo") are resolved against the package.
+ *
+ * A component without an explicit android:exported is treated as exported when it
+ * has an intent filter, as the platform does.
+ */
+public class ManifestParser {
+
+    private static final Set<String> COMPONENT_TYPES = new HashSet<>(
+        Arrays.asList("activity", "activity-alias", "service", "receiver", "provider"));
+    private static final String[] DATA_ATTRIBUTES = {
+        "scheme", "host", "port", "path", "pathPrefix", "pathPattern", "mimeType"};
+
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private String packageName = "";
+    private String versionCode;
+    private String versionName;
+    private String minSdkVersion;
+    private String targetSdkVersion;
+    private final List<String> usesPermissions = new ArrayList<>();
+    private final Map<String, String> definedPermissions = new LinkedHashMap<>();
+    private final List<ManifestComponent> components = new ArrayList<>();
+
+    // State of the component and intent filter being read
+    private String componentType;
+    private Map<String, String> componentAttributes;
+    private List<IntentFilter> componentFilters;
+    private List<String> filterActions;
+    private List<String> filterCategories;
+    private List<Map<String, String>> filterData;
+
+    private ManifestParser() {
+    }
+
+    /**
+     * Parse manifest XML text into the model
+     */
+    public static AppManifest parse(String manifestXml) throws XMLStreamException {
+        XMLStreamReader reader = FACTORY.createXMLStreamReader(new StringReader(manifestXml));
+        try {
+            return new ManifestParser().read(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private AppManifest read(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                startElement(reader);
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                endElement(reader.getLocalName());
+            }
+        }
+        return new AppManifest(packageName, versionCode, versionName, minSdkVersion, targetSdkVersion,
+            usesPermissions, definedPermissions, components);
+    }
+
+    private void startElement(XMLStreamReader reader) {
+        String element = reader.getLocalName();
+        if (COMPONENT_TYPES.contains(element)) {
+            componentType = element;
+            componentAttributes = new HashMap<>();
+            for (String attribute : new String[] {"name", "exported", "enabled", "permission", "targetActivity", "authorities"}) {
+                String value = androidAttribute(reader, attribute);
+                if (value != null) {
+                    componentAttributes.put(attribute, value);
+                }
+            }
+            componentFilters = new ArrayList<>();
+            return;
+        }
+
+        switch (element) {
+            case "manifest":
+                packageName = nonNull(reader.getAttributeValue(null, "package"));
+                versionCode = androidAttribute(reader, "versionCode");
+                versionName = androidAttribute(reader, "versionName");
+                break;
+            case "uses-sdk":
+                minSdkVersion = androidAttribute(reader, "minSdkVersion");
+                targetSdkVersion = androidAttribute(reader, "targetSdkVersion");
+                break;
+            case "uses-permission":
+            case "uses-permission-sdk-23":
+                addIfPresent(usesPermissions, androidAttribute(reader, "name"));
+                break;
+            case "permission":
+                String name = androidAttribute(reader, "name");
+                if (name != null) {
+                    definedPermissions.put(name, nonNull(androidAttribute(reader, "protectionLevel")));
+                }
+                break;
+            case "intent-filter":
+                if (componentType != null) {
+                    filterActions = new ArrayList<>();
+                    filterCategories = new ArrayList<>();
+                    filterData = new ArrayList<>();
+                }
+                break;
+            case "action":
+                if (filterActions != null) {
+                    addIfPresent(filterActions, androidAttribute(reader, "name"));
+                }
+                break;
+            case "category":
+                if (filterCategories != null) {
+                    addIfPresent(filterCategories, androidAttribute(reader, "name"));
+                }
+                break;
+            case "data":
+                if (filterData != null) {
+                    Map<String, String> data = new LinkedHashMap<>();
+                    for (String attribute : DATA_ATTRIBUTES) {
+                        String value = androidAttribute(reader, attribute);
+                        if (value != null && !value.isEmpty()) {
+                            data.put(attribute, value);
+                        }
+                    }
+                    if (!data.isEmpty()) {
+                        filterData.add(data);
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void endElement(String element) {
+        if (element.equals("intent-filter") && filterActions != null) {
+            componentFilters.add(new IntentFilter(filterActions, filterCategories, filterData));
+            filterActions = null;
+            filterCategories = null;
+            filterData = null;
+        } else if (element.equals(componentType)) {
+            String exported = componentAttributes.get("exported");
+            String targetActivity = componentAttributes.get("targetActivity");
+            components.add(new ManifestComponent(
+                componentType,
+                resolveName(componentAttributes.get("name")),
+                exported != null ? "true".equals(exported) : !componentFilters.isEmpty(),
+                !"false".equals(componentAttributes.get("enabled")),
+                componentAttributes.get("permission"),
+                targetActivity != null ? resolveName(targetActivity) : null,
+                componentAttributes.get("authorities"),
+                componentFilters));
+            componentType = null;
+            componentAttributes = null;
+            componentFilters = null;
+        }
+    }
+
+    private String resolveName(String name) {
+        if (name == null || name.isEmpty()) {
+            return nonNull(name);
+        }
+        if (name.startsWith(".")) {
+            return packageName + name;
+        }
+        if (!name.contains(".")) {
+            return packageName + "." + name;
+        }
+        return name;
+    }
+
+    /**
+     * Value of an android: attribute, matched by prefix (some readers report the whole
+     * qualified name as the local name when not namespace aware)
+     */
+    private static String androidAttribute(XMLStreamReader reader, String localName) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String name = reader.getAttributeLocalName(i);
+            if (localName.equals(name) && "android".equals(reader.getAttributePrefix(i))
+                    || ("android:" + localName).equals(name)) {
+                return reader.getAttributeValue(i);
+            }
+        }
+        return null;
+    }
+
+    private static void addIfPresent(List<String> values, String value) {
+        if (value != null && !value.isEmpty()) {
+            values.add(value);
+        }
+    }
+
+    private static String nonNull(String value) {
+        return value != null ? value : "";
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // Manifests never need DTDs or external entities
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        // An undeclared android: prefix must not fail the parse
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        return factory;
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.jadxmcpserver.core;
+
+import jadx.api.ICodeInfo;
+import jadx.api.metadata.ICodeAnnotation;
+import jadx.api.metadata.annotations.NodeDeclareRef;
+import jadx.api.metadata.annotations.NodeEnd;
+import jadx.core.dex.info.AccessInfo;
+import jadx.core.dex.nodes.ClassNode;
+import jadx.core.dex.nodes.MethodNode;
+
+import java.util.*;
+
+/**
+ * Method Offset Table - [start, end) offsets of every method in a class's decompiled code
+ * Built once per decompilation from JADX's code metadata: a method's declaration
+ * annotation marks its signature and the matching node-end annotation the position
+ * after its closing brace (declarations and ends nest like the code does). Methods
+ * without a body (abstract, native) end with their declaration line. Starts are moved
+ * back over the annotation and comment lines directly above the signature.
+ * A table keeps the code string it was built for, so slices always match its offsets.
+ */
+public class MethodOffsetTable {
+
+    private static final int METHOD_OVERHEAD = 48;
+
+    private final String code;
+    private final String[] owners;
+    private final String[] names;
+    private final String[] rawNames;
+    private final String[] descriptors;
+    private final int[] starts;
+    private final int[] ends;
+
+    private MethodOffsetTable(String code, List<String[]> symbols, List<int[]> ranges) {
+        this.code = code;
+        int count = symbols.size();
+        this.owners = new String[count];
+        this.names = new String[count];
+        this.rawNames = new String[count];
+        this.descriptors = new String[count];
+        this.starts = new int[count];
+        this.ends = new int[count];
+        for (int i = 0; i < count; i++) {
+            String[] symbol = symbols.get(i);
+            owners[i] = symbol[0];
+            names[i] = symbol[1];
+            rawNames[i] = symbol[2];
+            descriptors[i] = symbol[3];
+            starts[i] = ranges.get(i)[0];
+            ends[i] = ranges.get(i)[1];
+        }
+    }
+
+    /**
+     * Build the table from decompiled code with metadata; returns null if the code has none
+     */
+    public static MethodOffsetTable build(ICodeInfo codeInfo) {
+        if (!codeInfo.hasMetadata()) {
+            return null;
+        }
+        String code = codeInfo.getCodeStr();
+        // JADX keeps annotations in descending position order; walk them forward
+        SortedMap<Integer, ICodeAnnotation> byPosition = new TreeMap<>(codeInfo.getCodeMetadata().getAsMap());
+
+        List<String[]> symbols = new ArrayList<>();
+        List<int[]> ranges = new ArrayList<>();
+        // Open classes (-1) and methods (their index) waiting for a node end
+        Deque<Integer> open = new ArrayDeque<>();
+
+        for (Map.Entry<Integer, ICodeAnnotation> entry : byPosition.entrySet()) {
+            int position = entry.getKey();
+            ICodeAnnotation annotation = entry.getValue();
+            if (annotation instanceof NodeEnd) {
+                Integer index = open.poll();
+                if (index != null && index >= 0) {
+                    ranges.get(index)[1] = position;
+                }
+            } else if (annotation instanceof NodeDeclareRef) {
+                Object node = ((NodeDeclareRef) annotation).getNode();
+                if (node instanceof ClassNode) {
+                    open.push(-1);
+                } else if (node instanceof MethodNode) {
+                    MethodNode method = (MethodNode) node;
+                    String shortId = method.getMethodInfo().getShortId();
+                    symbols.add(new String[] {
+                        method.getParentClass().getFullName(),
+                        method.getAlias(),
+                        method.getName(),
+                        shortId.substring(shortId.indexOf('('))
+                    });
+                    int[] range = {lineStart(code, position), -1};
+                    ranges.add(range);
+                    AccessInfo flags = method.getAccessFlags();
+                    if (flags.isAbstract() || flags.isNative()) {
+                        range[1] = lineEnd(code, position);
+                    } else {
+                        open.push(ranges.size() - 1);
+                    }
+                }
+            }
+        }
+
+        // A method whose end was never seen (incomplete metadata) ends with its declaration line
+        for (int[] range : ranges) {
+            if (range[1] < range[0]) {
+                range[1] = lineEnd(code, range[0]);
+            }
+        }
+        return new MethodOffsetTable(code, symbols, ranges);
+    }
+
+    /**
+     * Find a method of a class by its name as shown in the code (or its original name)
+     * and optionally a descriptor prefix such as "(Ljava/lang/String;)" or "(I)V".
+     * Methods of the class itself win over methods of its nested classes; among
+     * overloads the first in code order wins. Returns -1 if nothing matches.
+     */
+    public int find(String owner, String name, String descriptor) {
+        int nested = -1;
+        for (int i = 0; i < names.length; i++) {
+            if (!matchesName(i, owner, name) || (descriptor != null && !descriptors[i].startsWith(descriptor))) {
+                continue;
+            }
+            if (owners[i].equals(owner)) {
+                return i;
+            }
+            if (nested < 0) {
+                nested = i;
+            }
+        }
+        return nested;
+    }
+
+    /**
+     * Descriptors of all methods with the given name, in code order
+     */
+    public List<String> getDescriptors(String owner, String name) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            if (matchesName(i, owner, name)) {
+                result.add(descriptors[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Source of the method at an index
+     */
+    public String getSource(int index) {
+        return code.substring(starts[index], ends[index]);
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public long getEstimatedBytes() {
+        return (long) names.length * METHOD_OVERHEAD;
+    }
+
+    /**
+     * Compact text form for the disk cache, one method per line
+     */
+    public String serialize() {
+        StringBuilder sb = new StringBuilder(names.length * 64);
+        for (int i = 0; i < names.length; i++) {
+            sb.append(owners[i]).append('\t').append(names[i]).append('\t').append(rawNames[i]).append('\t')
+                .append(descriptors[i]).append('\t').append(starts[i]).append('\t').append(ends[i]).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Read a serialized table for the given code; returns null if it is malformed or does not fit the code
+     */
+    public static MethodOffsetTable parse(String data, String code) {
+        List<String[]> symbols = new ArrayList<>();
+        List<int[]> ranges = new ArrayList<>();
+        try {
+            for (String line : data.split("\n")) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] parts = line.split("\t");
+                if (parts.length != 6) {
+                    return null;
+                }
+                int start = Integer.parseInt(parts[4]);
+                int end = Integer.parseInt(parts[5]);
+                if (start < 0 || end < start || end > code.length()) {
+                    return null;
+                }
+                symbols.add(new String[] {parts[0], parts[1], parts[2], parts[3]});
+                ranges.add(new int[] {start, end});
+            }
+        } catch (RuntimeException e) {
+            return null;
+        }
+        return new MethodOffsetTable(code, symbols, ranges);
+    }
+
+    private boolean matchesName(int index, String owner, String name) {
+        if (names[index].equals(name) || rawNames[index].equals(name)) {
+            return true;
+        }
+        // Constructors are written with the class name
+        return rawNames[index].equals("<init>") && owners[index].equals(owner) && owner.endsWith("." + name);
+    }
+
+    /**
+     * Start of the declaration's line, extended over annotation and comment lines right above it
+     */
+    private static int lineStart(String code, int position) {
+        int start = code.lastIndexOf('\n', position - 1) + 1;
+        while (start > 0) {
+            int previous = code.lastIndexOf('\n', start - 2) + 1;
+            String line = code.substring(previous, start - 1).trim();
+            if (!line.startsWith("@") && !line.startsWith("/*") && !line.startsWith("*") && !line.startsWith("//")) {
+                break;
+            }
+            start = previous;
+        }
+        return start;
+    }
+
+    private static int lineEnd(String code, int position) {
+        int end = code.indexOf('\n', position);
+        return end >= 0 ? end : code.length();
+    }
+}
@@ -0,0 +1,321 @@
+package com.example.jadxmcpserver.core;
+
+import java.util.*;
+
+/**
+ * Name Index - Exact, prefix and substring lookup over symbol names
+ * Distinct names are lower-cased, sorted and joined into one char array with a
+ * suffix array over it, so a substring query is two binary searches instead of a
+ * scan with toLowerCase() per candidate. Each name maps to one or more entries
+ * (e.g. every method with that name). Read-only after build.
+ *
+ * Results are ranked exact > prefix > substring, alphabetically within each tier,
+ * and can be paged with an offset so broad queries never materialize every hit.
+ */
+public class NameIndex {
+
+    public enum MatchMode { EXACT, PREFIX, SUBSTRING }
+
+    private static final char SEPARATOR = '\0';
+
+    private final String[] names;
+    private final int[] entryOffsets;
+    private final String[] entryOwners;
+    private final String[] entryValues;
+    private final char[] text;
+    private final int[] nameStarts;
+    private final int[] suffixes;
+
+    private NameIndex(String[] names, int[] entryOffsets, String[] entryOwners, String[] entryValues) {
+        this.names = names;
+        this.entryOffsets = entryOffsets;
+        this.entryOwners = entryOwners;
+        this.entryValues = entryValues;
+
+        int length = 0;
+        for (String name : names) {
+            length += name.length() + 1;
+        }
+        this.text = new char[length];
+        this.nameStarts = new int[names.length];
+        int[] positions = new int[length - names.length];
+        int pos = 0;
+        int suffixCount = 0;
+        for (int i = 0; i < names.length; i++) {
+            nameStarts[i] = pos;
+            String name = names[i];
+            name.getChars(0, name.length(), text, pos);
+            for (int j = 0; j < name.length(); j++) {
+                positions[suffixCount++] = pos + j;
+            }
+            pos += name.length();
+            text[pos++] = SEPARATOR;
+        }
+        sortSuffixes(text, positions, 0, positions.length - 1, 0);
+        this.suffixes = positions;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Collects (name, owner, value) entries before the index is built
+     */
+    public static class Builder {
+        private final Map<String, List<String[]>> entriesByName = new HashMap<>();
+
+        public Builder add(String name, String owner, String value) {
+            entriesByName.computeIfAbsent(name.toLowerCase(Locale.ROOT), k -> new ArrayList<>())
+                .add(new String[] {owner, value});
+            return this;
+        }
+
+        public NameIndex build() {
+            String[] names = entriesByName.keySet().toArray(new String[0]);
+            Arrays.sort(names);
+
+            int total = 0;
+            for (List<String[]> entries : entriesByName.values()) {
+                total += entries.size();
+            }
+
+            int[] offsets = new int[names.length + 1];
+            String[] owners = new String[total];
+            String[] values = new String[total];
+            int pos = 0;
+            for (int i = 0; i < names.length; i++) {
+                List<String[]> entries = entriesByName.get(names[i]);
+                entries.sort(Comparator.comparing((String[] e) -> e[1]).thenComparing(e -> e[0]));
+                for (String[] entry : entries) {
+                    owners[pos] = entry[0];
+                    values[pos] = entry[1];
+                    pos++;
+                }
+                offsets[i + 1] = pos;
+            }
+            return new NameIndex(names, offsets, owners, values);
+        }
+    }
+
+    /**
+     * One matching entry
+     */
+    public static class Match {
+        public final String owner;
+        public final String value;
+        public final MatchMode matchType;
+
+        Match(String owner, String value, MatchMode matchType) {
+            this.owner = owner;
+            this.value = value;
+            this.matchType = matchType;
+        }
+    }
+
+    /**
+     * One page of ranked matches
+     */
+    public static class Page {
+        public final List<Match> matches;
+        public final int totalMatches;
+        public final int nextOffset;
+
+        Page(List<Match> matches, int totalMatches, int nextOffset) {
+            this.matches = matches;
+            this.totalMatches = totalMatches;
+            this.nextOffset = nextOffset;
+        }
+
+        public boolean hasMore() {
+            return nextOffset >= 0;
+        }
+    }
+
+    /**
+     * Search names case-insensitively and return entries [offset, offset + limit) of the ranked result
+     */
+    public Page search(String query, MatchMode mode, int offset, int limit) {
+        String q = query.toLowerCase(Locale.ROOT);
+        offset = Math.max(0, offset);
+        limit = Math.max(0, limit);
+
+        // Tier 1: exact name
+        int exact = Arrays.binarySearch(names, q);
+
+        // Tier 2: names starting with the query form a contiguous range of the sorted names
+        int prefixFrom = 0;
+        int prefixTo = 0;
+        if (mode != MatchMode.EXACT) {
+            prefixFrom = lowerBound(names, q);
+            prefixTo = prefixFrom;
+            while (prefixTo < names.length && names[prefixTo].startsWith(q)) {
+                prefixTo++;
+            }
+        }
+
+        // Tier 3: names containing the query elsewhere, via the suffix array
+        BitSet substring = new BitSet(names.length);
+        if (mode == MatchMode.SUBSTRING && !q.isEmpty()) {
+            int from = suffixBound(q, false);
+            int to = suffixBound(q, true);
+            for (int i = from; i < to; i++) {
+                substring.set(nameAt(suffixes[i]));
+            }
+            substring.clear(prefixFrom, prefixTo);
+        }
+
+        List<Match> page = new ArrayList<>(Math.min(limit, 1024));
+        int[] counter = {0};
+        if (exact >= 0) {
+            collect(exact, MatchMode.EXACT, offset, limit, page, counter);
+        }
+        for (int id = prefixFrom; id < prefixTo; id++) {
+            if (id != exact) {
+                collect(id, MatchMode.PREFIX, offset, limit, page, counter);
+            }
+        }
+        for (int id = substring.nextSetBit(0); id >= 0; id = substring.nextSetBit(id + 1)) {
+            collect(id, MatchMode.SUBSTRING, offset, limit, page, counter);
+        }
+
+        int total = counter[0];
+        int next = offset + page.size() < total ? offset + page.size() : -1;
+        return new Page(page, total, next);
+    }
+
+    public int getNameCount() {
+        return names.length;
+    }
+
+    public int getEntryCount() {
+        return entryValues.length;
+    }
+
+    /**
+     * Approximate heap held by the index (arrays only; entry strings are shared with the registry)
+     */
+    public long getEstimatedBytes() {
+        long bytes = 2L * text.length + 4L * (nameStarts.length + suffixes.length + entryOffsets.length)
+                + 8L * (entryOwners.length + entryValues.length);
+        for (String name : names) {
+            bytes += 40 + 2L * name.length();
+        }
+        return bytes;
+    }
+
+    private void collect(int nameId, MatchMode type, int offset, int limit, List<Match> page, int[] counter) {
+        for (int e = entryOffsets[nameId]; e < entryOffsets[nameId + 1]; e++) {
+            int position = counter[0]++;
+            if (position >= offset && page.size() < limit) {
+                page.add(new Match(entryOwners[e], entryValues[e], type));
+            }
+        }
+    }
+
+    private int nameAt(int textPosition) {
+        int i = Arrays.binarySearch(nameStarts, textPosition);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    /**
+     * First suffix whose leading chars are >= the query (or > it, for the upper bound)
+     */
+    private int suffixBound(String q, boolean upper) {
+        int lo = 0;
+        int hi = suffixes.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = comparePrefix(suffixes[mid], q);
+            if (cmp < 0 || (upper && cmp == 0)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int comparePrefix(int pos, String q) {
+        for (int i = 0; i < q.length(); i++) {
+            int c = charAt(text, pos + i);
+            int diff = c - q.charAt(i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    private static int lowerBound(String[] sorted, String key) {
+        int i = Arrays.binarySearch(sorted, key);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    private static int charAt(char[] text, int pos) {
+        return pos < text.length ? text[pos] : SEPARATOR;
+    }
+
+    /**
+     * Three-way radix quicksort of suffix positions; comparison stops at the name separator
+     */
+    private static void sortSuffixes(char[] text, int[] a, int lo, int hi, int depth) {
+        while (hi > lo) {
+            if (hi - lo < 12) {
+                insertionSort(text, a, lo, hi, depth);
+                return;
+            }
+            swap(a, lo, lo + (hi - lo) / 2);
+            int pivot = charAt(text, a[lo] + depth);
+            int lt = lo;
+            int gt = hi;
+            int i = lo + 1;
+            while (i <= gt) {
+                int c = charAt(text, a[i] + depth);
+                if (c < pivot) {
+                    swap(a, lt++, i++);
+                } else if (c > pivot) {
+                    swap(a, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            sortSuffixes(text, a, lo, lt - 1, depth);
+            sortSuffixes(text, a, gt + 1, hi, depth);
+            if (pivot == SEPARATOR) {
+                return;
+            }
+            // Continue with the equal partition one character deeper
+            lo = lt;
+            hi = gt;
+            depth++;
+        }
+    }
+
+    private static void insertionSort(char[] text, int[] a, int lo, int hi, int depth) {
+        for (int i = lo + 1; i <= hi; i++) {
+            for (int j = i; j > lo && compareSuffixes(text, a[j], a[j - 1], depth) < 0; j--) {
+                swap(a, j, j - 1);
+            }
+        }
+    }
+
+    private static int compareSuffixes(char[] text, int p1, int p2, int depth) {
+        for (int d = depth; ; d++) {
+            int c1 = charAt(text, p1 + d);
+            int c2 = charAt(text, p2 + d);
+            if (c1 != c2) {
+                return c1 - c2;
+            }
+            if (c1 == SEPARATOR) {
+                return 0;
+            }
+        }
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int tmp = a[i];
+        a[i] = a[j];
+        a[j] = tmp;
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.jadxmcpserver.core;
+
+import jadx.api.JavaClass;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Predecompiler - Background warm-up that decompiles classes on a worker pool
+ * Work is handed out as JADX's decompile batches (classes with codegen dependencies
+ * stay together and run in order). Every class has a claim state, so a request that
+ * needs a class nobody has started yet claims it and decompiles it on its own thread
+ * instead of waiting for the queue; workers skip claimed classes.
+ */
+public class Predecompiler {
+
+    private static final int PENDING = 0;
+    private static final int RUNNING = 1;
+    private static final int DONE = 2;
+    private static final int FAILED = 3;
+    private static final int CANCEL_WAIT_SECONDS = 10;
+
+    private final List<List<JavaClass>> batches;
+    private final Map<String, Integer> classIds;
+    private final AtomicIntegerArray states;
+    private final Consumer<JavaClass> decompiler;
+    private final int threads;
+    private final List<String> packages;
+    private final AtomicInteger nextBatch = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger queueJumps = new AtomicInteger();
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final AtomicLong finishedAt = new AtomicLong();
+    private volatile boolean cancelled;
+    private volatile ExecutorService executor;
+    private long startedAt;
+
+    public Predecompiler(List<List<JavaClass>> batches, Consumer<JavaClass> decompiler, int threads, List<String> packages) {
+        this.batches = batches;
+        this.decompiler = decompiler;
+        this.threads = Math.max(1, threads);
+        this.packages = packages;
+        this.classIds = new HashMap<>();
+        for (List<JavaClass> batch : batches) {
+            for (JavaClass javaClass : batch) {
+                classIds.putIfAbsent(javaClass.getFullName(), classIds.size());
+            }
+        }
+        this.states = new AtomicIntegerArray(classIds.size());
+    }
+
+    /**
+     * Start the worker pool; returns immediately
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        startedAt = System.currentTimeMillis();
+        if (classIds.isEmpty()) {
+            finishedAt.set(startedAt);
+            return;
+        }
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "jadx-warmup");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+        activeWorkers.set(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(this::work);
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Claim a class for decompilation on the calling (request) thread.
+     * Returns false if the class is unknown or already started by someone else.
+     */
+    public boolean claimForRequest(String className) {
+        Integer id = classIds.get(className);
+        if (id == null || !states.compareAndSet(id, PENDING, RUNNING)) {
+            return false;
+        }
+        queueJumps.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Record the outcome of a class claimed with claimForRequest
+     */
+    public void complete(String className, boolean success) {
+        Integer id = classIds.get(className);
+        if (id != null) {
+            finish(id, success);
+        }
+    }
+
+    /**
+     * Stop handing out work and wait briefly for classes already being decompiled.
+     * Workers are not interrupted: an interrupt inside JADX or the disk cache would
+     * fail the class or close shared file channels; they see the flag between classes.
+     */
+    public void cancel() {
+        cancelled = true;
+        ExecutorService current = executor;
+        if (current != null) {
+            current.shutdown();
+            try {
+                current.awaitTermination(CANCEL_WAIT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public boolean isRunning() {
+        return executor != null && activeWorkers.get() > 0;
+    }
+
+    /**
+     * Get progress: done/total, failures, queue jumps and throughput
+     */
+    public Map<String, Object> getStatus() {
+        int done = completed.get();
+        long end = finishedAt.get();
+        long elapsed = (end != 0 ? end : System.currentTimeMillis()) - startedAt;
+
+        Map<String, Object> status = new HashMap<>();
+        status.put("running", isRunning());
+        status.put("cancelled", cancelled);
+        status.put("threads", threads);
+        status.put("packages", packages);
+        status.put("totalClasses", classIds.size());
+        status.put("decompiledClasses", done);
+        status.put("failedClasses", failed.get());
+        status.put("queueJumps", queueJumps.get());
+        status.put("elapsedMs", elapsed);
+        status.put("classesPerSecond", elapsed > 0 ? Math.round(done * 10000.0 / elapsed) / 10.0 : 0.0);
+        status.put("progress", classIds.isEmpty() ? 1.0 : Math.round(done * 1000.0 / classIds.size()) / 1000.0);
+        return status;
+    }
+
+    private void work() {
+        try {
+            int batchIndex;
+            while (!cancelled && (batchIndex = nextBatch.getAndIncrement()) < batches.size()) {
+                for (JavaClass javaClass : batches.get(batchIndex)) {
+                    if (cancelled) {
+                        return;
+                    }
+                    int id = classIds.get(javaClass.getFullName());
+                    if (!states.compareAndSet(id, PENDING, RUNNING)) {
+                        continue;
+                    }
+                    boolean success = false;
+                    try {
+                        decompiler.accept(javaClass);
+                        success = true;
+                    } catch (Exception e) {
+                        // Counted as failed; the class is retried on demand
+                    } finally {
+                        finish(id, success);
+                    }
+                }
+            }
+        } finally {
+            if (activeWorkers.decrementAndGet() == 0) {
+                finishedAt.compareAndSet(0, System.currentTimeMillis());
+            }
+        }
+    }
+
+    private void finish(int id, boolean success) {
+        states.set(id, success ? DONE : FAILED);
+        if (success) {
+            completed.incrementAndGet();
+        } else {
+            failed.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.example.jadxmcpserver.core;
+
+import jadx.api.ResourceFile;
+import jadx.core.xmlgen.ResContainer;
+import jadx.zip.IZipEntry;
+
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Resource Index - Resource files of an APK by name, with a bounded cache of decoded text
+ * Built once at load: a name -> ResourceFile map for lookups and the names sorted once,
+ * so listings filtered by directory prefix or glob binary-search the sorted names
+ * instead of scanning and sorting every resource.
+ *
+ * Content is decoded lazily through ResourceFile.loadContent(), which turns binary XML
+ * and resources.arsc into text; other files count as text only if they are valid
+ * UTF-8 without NUL bytes. Decoded text is kept in a size-weighted LRU cache
+ * (see RESOURCE_CACHE_MB_PROPERTY). Text too large for the whole cache is not counted
+ * against it; only the most recent such text is held, through a soft reference, so
+ * paging through one large file decodes it once while the heap allows.
+ * Raw bytes are streamed from the APK, never buffered whole.
+ */
+public class ResourceIndex {
+
+    /**
+     * System property with the decoded resource cache budget in megabytes (default 16)
+     */
+    public static final String RESOURCE_CACHE_MB_PROPERTY = "jadx.mcp.resourceCacheMb";
+
+    private static final long DEFAULT_CACHE_BYTES = 16L * 1024 * 1024;
+    private static final int ENTRY_OVERHEAD = 64;
+    private static final int TEXT_SNIFF_BYTES = 8192;
+    // Larger plain files are served as bytes only, never decoded into one string
+    private static final long MAX_TEXT_BYTES = 32L * 1024 * 1024;
+
+    private final Map<String, ResourceFile> byName;
+    private final String[] sortedNames;
+    private final long maxCacheBytes;
+    private final LinkedHashMap<String, String> content = new LinkedHashMap<>(64, 0.75f, true);
+    private final Set<String> binary = new HashSet<>();
+    private String oversizedName;
+    private SoftReference<String> oversizedText;
+    private long cacheBytes;
+    private long hits;
+    private long misses;
+
+    private ResourceIndex(Map<String, ResourceFile> byName, String[] sortedNames, long maxCacheBytes) {
+        this.byName = byName;
+        this.sortedNames = sortedNames;
+        this.maxCacheBytes = maxCacheBytes;
+    }
+
+    public static ResourceIndex build(List<ResourceFile> resources) {
+        Map<String, ResourceFile> byName = new HashMap<>(resources.size() * 2);
+        for (ResourceFile resource : resources) {
+            byName.putIfAbsent(resource.getOriginalName(), resource);
+        }
+        String[] names = byName.keySet().toArray(new String[0]);
+        Arrays.sort(names);
+        return new ResourceIndex(byName, names, getCacheBudget());
+    }
+
+    public ResourceFile get(String name) {
+        return byName.get(name);
+    }
+
+    public int size() {
+        return sortedNames.length;
+    }
+
+    /**
+     * All resource names, sorted
+     */
+    public List<String> getNames() {
+        return Collections.unmodifiableList(Arrays.asList(sortedNames));
+    }
+
+    /**
+     * Sorted names under a directory prefix (e.g. "res/layout/") and/or matching a glob,
+     * where * matches within one path segment, ** across segments and ? one character.
+     * Either filter may be null.
+     */
+    public List<String> list(String prefix, String glob) {
+        String literal = prefix != null ? prefix : "";
+        Pattern pattern = null;
+        if (glob != null && !glob.isEmpty()) {
+            pattern = globToPattern(glob);
+            // The glob's literal head narrows the range further when it extends the prefix
+            String head = literalHead(glob);
+            if (head.startsWith(literal)) {
+                literal = head;
+            } else if (!literal.startsWith(head)) {
+                return Collections.emptyList();
+            }
+        }
+
+        List<String> result = new ArrayList<>();
+        for (int i = lowerBound(literal); i < sortedNames.length && sortedNames[i].startsWith(literal); i++) {
+            if (pattern == null || pattern.matcher(sortedNames[i]).matches()) {
+                result.add(sortedNames[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Decoded text of a resource, a short description for binary files, or null if there is no such resource
+     */
+    public String getContent(String name) throws Exception {
+        ResourceFile resource = byName.get(name);
+        if (resource == null) {
+            return null;
+        }
+        String text = getText(name);
+        return text != null ? text : binaryDescription(resource, getSize(name));
+    }
+
+    /**
+     * Decoded text of a resource, or null if there is no such resource or it is binary
+     */
+    public String getText(String name) throws Exception {
+        ResourceFile resource = byName.get(name);
+        if (resource == null) {
+            return null;
+        }
+        synchronized (this) {
+            String cached = content.get(name);
+            if (cached == null && name.equals(oversizedName)) {
+                cached = oversizedText.get();
+            }
+            if (cached != null || binary.contains(name)) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+        // Decoding happens outside the lock; two threads may decode the same file once each
+        String text = decode(resource);
+        if (text != null) {
+            cache(name, text);
+        } else {
+            synchronized (this) {
+                binary.add(name);
+            }
+        }
+        return text;
+    }
+
+    /**
+     * Whether a resource has no text form (images, native libraries, other binary files)
+     */
+    public boolean isBinary(String name) throws Exception {
+        return byName.containsKey(name) && getText(name) == null;
+    }
+
+    /**
+     * Uncompressed size of a resource in the APK, or -1 if unknown or there is no such resource
+     */
+    public long getSize(String name) {
+        ResourceFile resource = byName.get(name);
+        IZipEntry zipEntry = resource != null ? resource.getZipEntry() : null;
+        return zipEntry != null ? zipEntry.getUncompressedSize() : -1;
+    }
+
+    /**
+     * Stream the raw bytes of a resource from the APK, or null if there is no such resource
+     * or it is not stored as a zip entry
+     */
+    public InputStream open(String name) {
+        ResourceFile resource = byName.get(name);
+        IZipEntry zipEntry = resource != null ? resource.getZipEntry() : null;
+        return zipEntry != null ? zipEntry.getInputStream() : null;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("resources", sortedNames.length);
+        stats.put("maxBytes", maxCacheBytes);
+        stats.put("currentBytes", cacheBytes);
+        stats.put("cachedResources", content.size());
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        return stats;
+    }
+
+    public synchronized void clear() {
+        content.clear();
+        binary.clear();
+        oversizedName = null;
+        oversizedText = null;
+        cacheBytes = 0;
+    }
+
+    private synchronized void cache(String name, String text) {
+        long weight = weigh(text);
+        if (weight > maxCacheBytes) {
+            oversizedName = name;
+            oversizedText = new SoftReference<>(text);
+            return;
+        }
+        String previous = content.put(name, text);
+        if (previous != null) {
+            cacheBytes -= weigh(previous);
+        }
+        cacheBytes += weight;
+        Iterator<String> it = content.values().iterator();
+        while (cacheBytes > maxCacheBytes && it.hasNext()) {
+            cacheBytes -= weigh(it.next());
+            it.remove();
+        }
+    }
+
+    /**
+     * Text of a resource, or null if it is binary
+     */
+    private static String decode(ResourceFile resource) throws Exception {
+        ResContainer container = resource.loadContent();
+        if (container != null) {
+            switch (container.getDataType()) {
+                case TEXT:
+                case RES_TABLE:
+                    return container.getText().getCodeStr();
+                case DECODED_DATA:
+                    return bytesToText(container.getDecodedData());
+                default:
+                    break;
+            }
+        }
+        IZipEntry zipEntry = resource.getZipEntry();
+        if (zipEntry == null || zipEntry.getUncompressedSize() > MAX_TEXT_BYTES) {
+            return null;
+        }
+        try (InputStream in = zipEntry.getInputStream()) {
+            byte[] head = in.readNBytes(TEXT_SNIFF_BYTES);
+            if (!looksLikeText(head)) {
+                return null;
+            }
+            byte[] rest = in.readAllBytes();
+            byte[] data = Arrays.copyOf(head, head.length + rest.length);
+            System.arraycopy(rest, 0, data, head.length, rest.length);
+            return bytesToText(data);
+        }
+    }
+
+    private static String bytesToText(byte[] data) {
+        if (!looksLikeText(data)) {
+            return null;
+        }
+        try {
+            return StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT)
+                .decode(ByteBuffer.wrap(data))
+                .toString();
+        } catch (CharacterCodingException e) {
+            return null;
+        }
+    }
+
+    private static boolean looksLikeText(byte[] data) {
+        int sniff = Math.min(data.length, TEXT_SNIFF_BYTES);
+        for (int i = 0; i < sniff; i++) {
+            if (data[i] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String binaryDescription(ResourceFile resource, long size) {
+        return "Binary resource file: " + resource.getOriginalName() + " (type " + resource.getType()
+            + (size >= 0 ? ", " + size + " bytes" : "") + ")";
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = sortedNames.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedNames[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static String literalHead(String glob) {
+        int end = 0;
+        while (end < glob.length() && "*?".indexOf(glob.charAt(end)) < 0) {
+            end++;
+        }
+        return glob.substring(0, end);
+    }
+
+    private static Pattern globToPattern(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*') {
+                if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                    regex.append(".*");
+                    i++;
+                } else {
+                    regex.append("[^/]*");
+                }
+            } else if (c == '?') {
+                regex.append("[^/]");
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private static long weigh(String text) {
+        return ENTRY_OVERHEAD + 2L * text.length();
+    }
+
+    private static long getCacheBudget() {
+        String configured = System.getProperty(RESOURCE_CACHE_MB_PROPERTY);
+        if (configured != null) {
+            try {
+                return Long.parseLong(configured.trim()) * 1024 * 1024;
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid " + RESOURCE_CACHE_MB_PROPERTY + ": " + configured);
+            }
+        }
+        return DEFAULT_CACHE_BYTES;
+    }
+}
@@ -0,0 +1,531 @@
+package com.example.jadxmcpserver.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Session Registry - Several loaded APKs kept side by side, addressed by session id
+ * A session id is derived from the APK's SHA-256, so loading the same content again
+ * (from any path) reuses the existing session instead of decompiling it twice.
+ * Loading a changed file, or forcing a reload, swaps the new analysis in only once
+ * it is complete, so there is no window without a loaded APK.
+ * The most recently loaded or reused session is the current one, used whenever
+ * no session id is given.
+ *
+ * After each new load the live heap is checked against a budget (see
+ * SESSION_HEAP_MB_PROPERTY); while it is exceeded, least-recently-used sessions
+ * other than the current one are closed. The decompiled code caches of all
+ * sessions share one budget inside it, split evenly and rebalanced whenever a
+ * session is added or removed.
+ *
+ * Requests use a session through a Lease. Closing a session only removes it from
+ * the registry; its analyzer is closed when the last lease is released, so a close,
+ * eviction or reload never pulls a decompiler out from under a running request.
+ *
+ * Loads can also run as background LoadJobs, which report their phases while they run
+ * and can be cancelled; the registry keeps running jobs and the most recent finished ones.
+ */
+public class SessionRegistry {
+
+    /**
+     * System property with the heap budget for loaded sessions in megabytes
+     * (default: 75% of the maximum heap)
+     */
+    public static final String SESSION_HEAP_MB_PROPERTY = "jadx.mcp.sessionHeapMb";
+
+    private static final int SESSION_ID_LENGTH = 12;
+    private static final int MAX_FINISHED_JOBS = 16;
+
+    private final LinkedHashMap<String, Session> sessions = new LinkedHashMap<>(16, 0.75f, true);
+    private final long heapBudget;
+    private final long codeCacheBudget;
+    private volatile String currentId;
+    private final LinkedHashMap<String, LoadJob> jobs = new LinkedHashMap<>();
+    private final AtomicInteger jobCounter = new AtomicInteger();
+
+    /**
+     * One loaded APK
+     */
+    public static class Session {
+        public final String id;
+        public final String apkPath;
+        private final String location;
+        public final String apkSha256;
+        public final JadxAnalyzerCore core;
+        public final long createdAt;
+        private volatile long lastAccess;
+        // One reference held by the registry plus one per open lease
+        private final AtomicInteger references = new AtomicInteger(1);
+        private final AtomicBoolean retired = new AtomicBoolean();
+
+        Session(String id, String apkPath, String location, String apkSha256, JadxAnalyzerCore core) {
+            this.id = id;
+            this.apkPath = apkPath;
+            this.location = location;
+            this.apkSha256 = apkSha256;
+            this.core = core;
+            this.createdAt = System.currentTimeMillis();
+            this.lastAccess = createdAt;
+        }
+
+        public long getLastAccess() {
+            return lastAccess;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("session", id);
+            map.put("apkPath", apkPath);
+            map.put("apkSha256", apkSha256);
+            map.put("createdAt", createdAt);
+            map.put("idleMs", System.currentTimeMillis() - lastAccess);
+            map.put("activeRequests", references.get() - (retired.get() ? 0 : 1));
+            return map;
+        }
+
+        /**
+         * Take a reference; fails once the session has been closed and drained
+         */
+        private boolean retain() {
+            while (true) {
+                int count = references.get();
+                if (count == 0) {
+                    return false;
+                }
+                if (references.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private boolean release() {
+            if (references.decrementAndGet() == 0) {
+                core.close();
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Drop the registry's reference; the analyzer closes once running requests finish.
+         * Returns true if it closed right away.
+         */
+        private boolean retire() {
+            return retired.compareAndSet(false, true) && release();
+        }
+    }
+
+    /**
+     * A session held open for the duration of one request
+     */
+    public static class Lease implements AutoCloseable {
+        private final Session session;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Lease(Session session) {
+            this.session = session;
+        }
+
+        public Session session() {
+            return session;
+        }
+
+        public JadxAnalyzerCore core() {
+            return session.core;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                session.release();
+            }
+        }
+    }
+
+    /**
+     * Result of opening an APK: the session and whether it already existed
+     */
+    public static class Opened {
+        public final Session session;
+        public final boolean reused;
+        public final List<String> replaced;
+
+        Opened(Session session, boolean reused, List<String> replaced) {
+            this.session = session;
+            this.reused = reused;
+            this.replaced = replaced;
+        }
+    }
+
+    public SessionRegistry() {
+        this(getHeapBudget());
+    }
+
+    public SessionRegistry(long heapBudget) {
+        this.heapBudget = heapBudget;
+        // Code caches get at most half of the session budget; the rest is JADX's class model
+        this.codeCacheBudget = Math.min(JadxAnalyzerCore.getDefaultCodeCacheBudget(), heapBudget / 2);
+    }
+
+    /**
+     * Open an APK as a session, reusing the session of an identical APK if one is loaded
+     */
+    public Opened open(String apkPath) {
+        return open(apkPath, false);
+    }
+
+    /**
+     * Open an APK as a session. The new analysis is built outside the registry lock while
+     * existing sessions keep serving, then published in one step. It replaces the session
+     * of identical content (only loaded again when reload is true) and any older session
+     * loaded from the same file; replaced sessions close once their running requests finish.
+     */
+    public Opened open(String apkPath, boolean reload) {
+        return open(apkPath, reload, new LoadProgress());
+    }
+
+    /**
+     * Open an APK as a session, reporting phases to progress. A cancelled load closes its
+     * partly built analyzer and publishes nothing.
+     */
+    public Opened open(String apkPath, boolean reload, LoadProgress progress) {
+        File apkFile = new File(apkPath);
+        if (!apkFile.exists()) {
+            throw new RuntimeException("APK file not found: " + apkPath);
+        }
+
+        progress.start(LoadProgress.Phase.HASH);
+        String sha256;
+        try {
+            sha256 = DiskCodeCache.sha256(apkFile);
+        } catch (Exception e) {
+            throw new RuntimeException("Error reading APK: " + e.getMessage(), e);
+        }
+        String id = sha256.substring(0, SESSION_ID_LENGTH);
+        String location = location(apkFile);
+
+        if (!reload) {
+            Session existing = touch(id);
+            if (existing != null) {
+                currentId = id;
+                return new Opened(existing, true, Collections.emptyList());
+            }
+        }
+
+        JadxAnalyzerCore core = new JadxAnalyzerCore(apkPath, sha256);
+        core.setCodeCacheBudget(codeCacheBudget / (size() + 1));
+        try {
+            if (!core.loadApk(progress)) {
+                throw new RuntimeException("Failed to load APK: " + apkPath);
+            }
+            progress.checkCancelled();
+        } catch (RuntimeException e) {
+            // Free whatever the decompiler had built so far
+            core.close();
+            throw e;
+        }
+
+        Session session;
+        boolean reused = false;
+        List<Session> replaced = new ArrayList<>();
+        synchronized (this) {
+            session = reload ? null : sessions.get(id);
+            if (session == null) {
+                session = new Session(id, apkPath, location, sha256, core);
+                Iterator<Session> it = sessions.values().iterator();
+                while (it.hasNext()) {
+                    Session other = it.next();
+                    if (other.id.equals(id) || other.location.equals(location)) {
+                        replaced.add(other);
+                        it.remove();
+                    }
+                }
+                sessions.put(id, session);
+            } else {
+                // Lost a race with a concurrent load of the same APK
+                reused = true;
+            }
+            currentId = id;
+        }
+
+        List<String> replacedIds = new ArrayList<>();
+        for (Session other : replaced) {
+            other.retire();
+            replacedIds.add(other.id);
+        }
+        if (reused) {
+            core.close();
+        } else {
+            rebalanceCodeCaches();
+            evictIfOverBudget();
+        }
+        return new Opened(session, reused, replacedIds);
+    }
+
+    /**
+     * Start a background load job running task, which opens the APK with the job's progress
+     */
+    public LoadJob startLoad(String apkPath, Function<LoadProgress, Map<String, Object>> task) {
+        if (!new File(apkPath).exists()) {
+            throw new RuntimeException("APK file not found: " + apkPath);
+        }
+        LoadJob job = new LoadJob("load-" + jobCounter.incrementAndGet(), apkPath, task);
+        synchronized (jobs) {
+            jobs.put(job.id, job);
+            pruneFinishedJobs();
+        }
+        job.start();
+        return job;
+    }
+
+    /**
+     * Get a load job by id
+     */
+    public LoadJob getLoadJob(String id) {
+        synchronized (jobs) {
+            LoadJob job = jobs.get(id);
+            if (job == null) {
+                throw new RuntimeException("Unknown load job: " + id);
+            }
+            return job;
+        }
+    }
+
+    /**
+     * Describe running and recently finished load jobs, oldest first
+     */
+    public List<Map<String, Object>> listLoadJobs() {
+        synchronized (jobs) {
+            List<Map<String, Object>> result = new ArrayList<>();
+            for (LoadJob job : jobs.values()) {
+                result.add(job.toMap());
+            }
+            return result;
+        }
+    }
+
+    private void pruneFinishedJobs() {
+        int finished = 0;
+        for (LoadJob job : jobs.values()) {
+            if (job.getState() != LoadJob.State.RUNNING) {
+                finished++;
+            }
+        }
+        Iterator<LoadJob> it = jobs.values().iterator();
+        while (finished > MAX_FINISHED_JOBS && it.hasNext()) {
+            if (it.next().getState() != LoadJob.State.RUNNING) {
+                it.remove();
+                finished--;
+            }
+        }
+    }
+
+    /**
+     * Get a session by id, or the current session when id is null or empty
+     */
+    public Session get(String id) {
+        String sessionId = id == null || id.isEmpty() ? currentId : id;
+        if (sessionId == null) {
+            throw new RuntimeException("No APK loaded. Call loadApk() first.");
+        }
+        Session session = touch(sessionId);
+        if (session == null) {
+            if (id == null || id.isEmpty()) {
+                throw new RuntimeException("No APK loaded. Call loadApk() first.");
+            }
+            throw new RuntimeException("Unknown session: " + id + ". Use list_sessions to see loaded APKs.");
+        }
+        return session;
+    }
+
+    /**
+     * Get a session by id (or the current session) and hold it open until the lease is closed
+     */
+    public Lease acquire(String id) {
+        while (true) {
+            Session session = get(id);
+            if (session.retain()) {
+                return new Lease(session);
+            }
+            // Closed between lookup and retain; look again (a current session may have moved on)
+        }
+    }
+
+    /**
+     * Close one session; closing the current session makes the most recently used remaining one current
+     */
+    public void close(String id) {
+        Session session;
+        synchronized (this) {
+            session = sessions.remove(id);
+            if (id.equals(currentId)) {
+                currentId = mostRecentId();
+            }
+        }
+        if (session == null) {
+            throw new RuntimeException("Unknown session: " + id);
+        }
+        session.retire();
+        rebalanceCodeCaches();
+    }
+
+    /**
+     * Close every session
+     */
+    public void closeAll() {
+        synchronized (jobs) {
+            for (LoadJob job : jobs.values()) {
+                job.cancel();
+            }
+        }
+        List<Session> closing;
+        synchronized (this) {
+            closing = new ArrayList<>(sessions.values());
+            sessions.clear();
+            currentId = null;
+        }
+        for (Session session : closing) {
+            session.retire();
+        }
+    }
+
+    /**
+     * Describe all sessions, most recently used first
+     */
+    public synchronized List<Map<String, Object>> list() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Session session : sessions.values()) {
+            Map<String, Object> map = session.toMap();
+            map.put("current", session.id.equals(currentId));
+            result.add(0, map);
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return sessions.size();
+    }
+
+    private synchronized Session touch(String id) {
+        Session session = sessions.get(id);
+        if (session != null) {
+            session.lastAccess = System.currentTimeMillis();
+        }
+        return session;
+    }
+
+    private static String location(File apkFile) {
+        try {
+            return apkFile.getCanonicalPath();
+        } catch (IOException e) {
+            return apkFile.getAbsolutePath();
+        }
+    }
+
+    private String mostRecentId() {
+        String last = null;
+        for (String id : sessions.keySet()) {
+            last = id;
+        }
+        return last;
+    }
+
+    /**
+     * Split the shared code cache budget evenly over the loaded sessions
+     */
+    private void rebalanceCodeCaches() {
+        List<Session> loaded;
+        synchronized (this) {
+            loaded = new ArrayList<>(sessions.values());
+        }
+        for (Session session : loaded) {
+            session.core.setCodeCacheBudget(codeCacheBudget / loaded.size());
+        }
+    }
+
+    /**
+     * Close least-recently-used sessions (never the current one) while the heap is over budget.
+     * Live heap is only known after a collection, so one is requested before each decision;
+     * this only happens once the budget is already exceeded. A victim that is still serving
+     * a request frees nothing until its lease ends, so eviction stops there rather than
+     * closing every other session in the meantime.
+     */
+    private void evictIfOverBudget() {
+        if (usedHeap() <= heapBudget) {
+            return;
+        }
+        try {
+            evictUntilUnderBudget();
+        } finally {
+            rebalanceCodeCaches();
+        }
+    }
+
+    private void evictUntilUnderBudget() {
+        while (true) {
+            System.gc();
+            if (usedHeap() <= heapBudget) {
+                return;
+            }
+            Session victim = null;
+            synchronized (this) {
+                for (Session session : sessions.values()) {
+                    if (!session.id.equals(currentId)) {
+                        victim = session;
+                        break;
+                    }
+                }
+                if (victim == null) {
+                    return;
+                }
+                sessions.remove(victim.id);
+            }
+            if (!victim.retire()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Heap in use after the last collection (live data), falling back to current usage
+     */
+    private static long usedHeap() {
+        long used = 0;
+        boolean haveCollectionUsage = false;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP) {
+                continue;
+            }
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (usage != null) {
+                used += usage.getUsed();
+                haveCollectionUsage = true;
+            }
+        }
+        if (!haveCollectionUsage) {
+            Runtime runtime = Runtime.getRuntime();
+            used = runtime.totalMemory() - runtime.freeMemory();
+        }
+        return used;
+    }
+
+    private static long getHeapBudget() {
+        String configured = System.getProperty(SESSION_HEAP_MB_PROPERTY);
+        if (configured != null) {
+            try {
+                return Long.parseLong(configured.trim()) * 1024 * 1024;
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid " + SESSION_HEAP_MB_PROPERTY + ": " + configured);
+            }
+        }
+        return Runtime.getRuntime().maxMemory() / 4 * 3;
+    }
+}
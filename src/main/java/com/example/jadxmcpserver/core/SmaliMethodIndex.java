@@ -0,0 +1,163 @@
+package com.example.jadxmcpserver.core;
+
+import java.util.*;
+
+/**
+ * Smali Method Index - A class's smali text with the [start, end) offsets of every method
+ * Built in one pass over the text: each class section starts with JADX's
+ * "###### Class <name> (<raw name>)" header, each method spans from its ".method" line
+ * through its ".end method" line. Methods are keyed by their (original) name, so a
+ * lookup only walks that name's overloads; cutting a method out is one substring.
+ * The same pass records where every line starts, for paging through the whole text.
+ */
+public class SmaliMethodIndex {
+
+    private static final String CLASS_HEADER = "###### Class ";
+    private static final String METHOD_START = ".method ";
+    private static final String METHOD_END = ".end method";
+    private static final int ENTRY_OVERHEAD = 96;
+    private static final int METHOD_OVERHEAD = 64;
+
+    private final String smali;
+    private LineIndex lines;
+    private final List<String> owners = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private final List<String> descriptors = new ArrayList<>();
+    private final List<int[]> ranges = new ArrayList<>();
+    // Method name -> indexes of its overloads, in smali order
+    private final Map<String, List<Integer>> byName = new HashMap<>();
+
+    private SmaliMethodIndex(String smali) {
+        this.smali = smali;
+    }
+
+    /**
+     * Index the smali of a class (and the nested classes JADX appends to it)
+     */
+    public static SmaliMethodIndex build(String smali) {
+        SmaliMethodIndex index = new SmaliMethodIndex(smali);
+        List<Integer> lineStarts = new ArrayList<>();
+        String owner = "";
+        int methodStart = -1;
+        int pos = 0;
+        while (pos < smali.length()) {
+            lineStarts.add(pos);
+            int lineEnd = smali.indexOf('\n', pos);
+            int next = lineEnd >= 0 ? lineEnd + 1 : smali.length();
+            if (lineEnd < 0) {
+                lineEnd = smali.length();
+            }
+            int first = pos;
+            while (first < lineEnd && Character.isWhitespace(smali.charAt(first))) {
+                first++;
+            }
+
+            if (smali.startsWith(CLASS_HEADER, first)) {
+                int nameEnd = smali.indexOf(' ', first + CLASS_HEADER.length());
+                owner = smali.substring(first + CLASS_HEADER.length(), nameEnd >= 0 && nameEnd < lineEnd ? nameEnd : lineEnd);
+                methodStart = -1;
+            } else if (smali.startsWith(METHOD_START, first)) {
+                methodStart = pos;
+            } else if (methodStart >= 0 && smali.startsWith(METHOD_END, first)) {
+                index.add(owner, methodStart, next);
+                methodStart = -1;
+            }
+            pos = next;
+        }
+        index.lines = LineIndex.of(smali, lineStarts);
+        return index;
+    }
+
+    private void add(String owner, int start, int end) {
+        int lineEnd = smali.indexOf('\n', start);
+        String declaration = smali.substring(start, lineEnd >= 0 && lineEnd < end ? lineEnd : end).trim();
+        String signature = declaration.substring(declaration.lastIndexOf(' ') + 1);
+        int paren = signature.indexOf('(');
+        if (paren <= 0) {
+            return;
+        }
+        String name = signature.substring(0, paren);
+        byName.computeIfAbsent(name, k -> new ArrayList<>()).add(names.size());
+        owners.add(owner);
+        names.add(name);
+        descriptors.add(signature.substring(paren));
+        ranges.add(new int[] {start, end});
+    }
+
+    /**
+     * Find a method by its original name (constructors also by the class's simple name)
+     * and optionally a descriptor prefix such as "(Ljava/lang/String;)" or "(I)V".
+     * Methods of the class itself win over methods of its nested classes; among
+     * overloads the first in smali order wins. Returns -1 if nothing matches.
+     */
+    public int find(String owner, String name, String descriptor) {
+        int nested = -1;
+        for (int i : candidates(owner, name)) {
+            if (descriptor != null && !descriptors.get(i).startsWith(descriptor)) {
+                continue;
+            }
+            if (owners.get(i).equals(owner)) {
+                return i;
+            }
+            if (nested < 0) {
+                nested = i;
+            }
+        }
+        return nested;
+    }
+
+    /**
+     * Descriptors of all methods with the given name, in smali order
+     */
+    public List<String> getDescriptors(String owner, String name) {
+        List<String> result = new ArrayList<>();
+        for (int i : candidates(owner, name)) {
+            result.add(descriptors.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Smali of the method at an index
+     */
+    public String getSmali(int index) {
+        int[] range = ranges.get(index);
+        return smali.substring(range[0], range[1]);
+    }
+
+    public String getSmali() {
+        return smali;
+    }
+
+    public LineIndex getLines() {
+        return lines;
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public long getEstimatedBytes() {
+        return ENTRY_OVERHEAD + 2L * smali.length() + (long) METHOD_OVERHEAD * names.size()
+            + lines.getEstimatedBytes();
+    }
+
+    private List<Integer> candidates(String owner, String name) {
+        List<Integer> matches = byName.getOrDefault(name, Collections.emptyList());
+        if (owner.endsWith("." + name) && byName.containsKey("<init>")) {
+            // Constructors are also looked up by the class name, as in the decompiled code
+            List<Integer> constructors = new ArrayList<>();
+            for (int i : byName.get("<init>")) {
+                if (owners.get(i).equals(owner)) {
+                    constructors.add(i);
+                }
+            }
+            if (!constructors.isEmpty()) {
+                List<Integer> combined = new ArrayList<>(matches);
+                combined.addAll(constructors);
+                return combined;
+            }
+        }
+        return matches;
+    }
+}
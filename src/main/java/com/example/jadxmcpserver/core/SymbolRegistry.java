@@ -0,0 +1,328 @@
+package com.example.jadxmcpserver.core;
+
+import jadx.api.JavaClass;
+import jadx.core.dex.instructions.args.ArgType;
+import jadx.core.dex.nodes.ClassNode;
+import jadx.core.dex.nodes.FieldNode;
+import jadx.core.dex.nodes.MethodNode;
+
+import java.util.*;
+
+/**
+ * Symbol Registry - Hash-indexed lookup tables for a loaded APK
+ * Built once after the decompiler has loaded and never modified afterwards,
+ * so every lookup is O(1) and safe to call from any thread:
+ * - full class name -> JavaClass
+ * - simple class name -> classes
+ * - package -> class names, and per-package class counts including subpackages
+ * - all class names, sorted (package prefixes are contiguous ranges)
+ * - class -> method and field descriptors
+ * - class and method names -> substring/prefix name indexes
+ * Members are read from the class nodes, not JavaClass.getMethods(), because
+ * the latter decompiles the class on first access.
+ */
+public class SymbolRegistry {
+
+    // Rough per-object overheads used for the memory estimate (64-bit JVM, compressed oops)
+    private static final int STRING_OVERHEAD = 40;
+    private static final int MAP_ENTRY_OVERHEAD = 48;
+    private static final int LIST_SLOT_OVERHEAD = 4;
+
+    private final List<JavaClass> classes;
+    private final Map<String, JavaClass> classesByFullName;
+    private final Map<String, List<JavaClass>> classesBySimpleName;
+    private final Map<String, List<String>> classesByPackage;
+    private final Map<String, List<String>> methodsByClass;
+    private final Map<String, List<String>> fieldsByClass;
+    private final List<String> sortedClassNames;
+    // package -> {classes directly in it, classes in it and all subpackages}, sorted by package
+    private final SortedMap<String, int[]> packageCounts;
+    private final NameIndex classNameIndex;
+    private final NameIndex methodNameIndex;
+    private final int methodCount;
+    private final int fieldCount;
+    private final long estimatedBytes;
+    private final long buildTimeMs;
+
+    private SymbolRegistry(List<JavaClass> classes,
+                           Map<String, JavaClass> classesByFullName,
+                           Map<String, List<JavaClass>> classesBySimpleName,
+                           Map<String, List<String>> classesByPackage,
+                           Map<String, List<String>> methodsByClass,
+                           Map<String, List<String>> fieldsByClass,
+                           List<String> sortedClassNames,
+                           SortedMap<String, int[]> packageCounts,
+                           NameIndex classNameIndex,
+                           NameIndex methodNameIndex,
+                           int methodCount, int fieldCount,
+                           long estimatedBytes, long buildTimeMs) {
+        this.classes = classes;
+        this.classesByFullName = classesByFullName;
+        this.classesBySimpleName = classesBySimpleName;
+        this.classesByPackage = classesByPackage;
+        this.methodsByClass = methodsByClass;
+        this.fieldsByClass = fieldsByClass;
+        this.sortedClassNames = sortedClassNames;
+        this.packageCounts = packageCounts;
+        this.classNameIndex = classNameIndex;
+        this.methodNameIndex = methodNameIndex;
+        this.methodCount = methodCount;
+        this.fieldCount = fieldCount;
+        this.estimatedBytes = estimatedBytes;
+        this.buildTimeMs = buildTimeMs;
+    }
+
+    /**
+     * Build the registry from the decompiler's top-level classes
+     */
+    public static SymbolRegistry build(List<JavaClass> javaClasses) {
+        long start = System.nanoTime();
+
+        int capacity = Math.max(16, javaClasses.size() * 4 / 3 + 1);
+        Map<String, JavaClass> byFullName = new HashMap<>(capacity);
+        Map<String, List<JavaClass>> bySimpleName = new HashMap<>(capacity);
+        Map<String, List<String>> byPackage = new HashMap<>();
+        Map<String, List<String>> methods = new HashMap<>(capacity);
+        Map<String, List<String>> fields = new HashMap<>(capacity);
+        List<String> names = new ArrayList<>(javaClasses.size());
+        NameIndex.Builder classIndex = NameIndex.builder();
+        NameIndex.Builder methodIndex = NameIndex.builder();
+
+        int methodCount = 0;
+        int fieldCount = 0;
+        long bytes = 0;
+
+        for (JavaClass javaClass : javaClasses) {
+            String fullName = javaClass.getFullName();
+            byFullName.put(fullName, javaClass);
+            bySimpleName.computeIfAbsent(javaClass.getName(), k -> new ArrayList<>(1)).add(javaClass);
+            byPackage.computeIfAbsent(javaClass.getPackage(), k -> new ArrayList<>()).add(fullName);
+            names.add(fullName);
+            classIndex.add(fullName, fullName, fullName);
+            bytes += estimateString(fullName) + 4L * MAP_ENTRY_OVERHEAD + 2L * LIST_SLOT_OVERHEAD;
+
+            ClassNode classNode = javaClass.getClassNode();
+
+            List<MethodNode> methodNodes = new ArrayList<>(classNode.getMethods());
+            methodNodes.removeIf(m -> m.getAccessFlags().isSynthetic());
+            methodNodes.sort(Comparator.comparing(MethodNode::getAlias));
+            List<String> methodNames = new ArrayList<>(methodNodes.size());
+            for (MethodNode method : methodNodes) {
+                String descriptor = method.getMethodInfo().getFullName();
+                methodNames.add(descriptor);
+                methodIndex.add(method.getAlias(), fullName, descriptor);
+                bytes += estimateString(descriptor) + LIST_SLOT_OVERHEAD;
+            }
+            methods.put(fullName, Collections.unmodifiableList(methodNames));
+            methodCount += methodNames.size();
+
+            List<String> fieldNames = new ArrayList<>(classNode.getFields().size());
+            for (FieldNode field : classNode.getFields()) {
+                if (field.getAccessFlags().isSynthetic()) {
+                    continue;
+                }
+                ArgType type = ArgType.tryToResolveClassAlias(field.root(), field.getType());
+                String descriptor = type + " " + field.getAlias();
+                fieldNames.add(descriptor);
+                bytes += estimateString(descriptor) + LIST_SLOT_OVERHEAD;
+            }
+            fields.put(fullName, Collections.unmodifiableList(fieldNames));
+            fieldCount += fieldNames.size();
+        }
+
+        Collections.sort(names);
+        bySimpleName.replaceAll((k, v) -> Collections.unmodifiableList(v));
+        byPackage.replaceAll((k, v) -> {
+            Collections.sort(v);
+            return Collections.unmodifiableList(v);
+        });
+        bytes += byPackage.size() * (long) MAP_ENTRY_OVERHEAD;
+
+        // Every package and its ancestors, with direct and subtree class counts
+        SortedMap<String, int[]> packageCounts = new TreeMap<>();
+        for (Map.Entry<String, List<String>> entry : byPackage.entrySet()) {
+            String pkg = entry.getKey();
+            int count = entry.getValue().size();
+            packageCounts.computeIfAbsent(pkg, k -> new int[2])[0] += count;
+            for (String ancestor = pkg; !ancestor.isEmpty(); ancestor = parentPackage(ancestor)) {
+                packageCounts.computeIfAbsent(ancestor, k -> new int[2])[1] += count;
+            }
+            if (pkg.isEmpty()) {
+                packageCounts.get(pkg)[1] += count;
+            }
+        }
+        bytes += packageCounts.size() * (long) (MAP_ENTRY_OVERHEAD + STRING_OVERHEAD);
+
+        NameIndex classNameIndex = classIndex.build();
+        NameIndex methodNameIndex = methodIndex.build();
+        bytes += classNameIndex.getEstimatedBytes() + methodNameIndex.getEstimatedBytes();
+
+        long buildTimeMs = (System.nanoTime() - start) / 1_000_000;
+        return new SymbolRegistry(
+            Collections.unmodifiableList(new ArrayList<>(javaClasses)),
+            Collections.unmodifiableMap(byFullName),
+            Collections.unmodifiableMap(bySimpleName),
+            Collections.unmodifiableMap(byPackage),
+            Collections.unmodifiableMap(methods),
+            Collections.unmodifiableMap(fields),
+            Collections.unmodifiableList(names),
+            Collections.unmodifiableSortedMap(packageCounts),
+            classNameIndex, methodNameIndex,
+            methodCount, fieldCount, bytes, buildTimeMs);
+    }
+
+    /**
+     * Get a class by its full name, or null if unknown
+     */
+    public JavaClass getClass(String fullName) {
+        return fullName != null ? classesByFullName.get(fullName) : null;
+    }
+
+    /**
+     * Check whether a class with the given full name exists
+     */
+    public boolean hasClass(String fullName) {
+        return fullName != null && classesByFullName.containsKey(fullName);
+    }
+
+    /**
+     * Get all classes sharing a simple name
+     */
+    public List<JavaClass> getClassesBySimpleName(String simpleName) {
+        return classesBySimpleName.getOrDefault(simpleName, Collections.emptyList());
+    }
+
+    /**
+     * Get the sorted full names of all classes in a package
+     */
+    public List<String> getClassesInPackage(String packageName) {
+        return classesByPackage.getOrDefault(packageName, Collections.emptyList());
+    }
+
+    /**
+     * Get all package names
+     */
+    public Set<String> getPackages() {
+        return classesByPackage.keySet();
+    }
+
+    /**
+     * Get method descriptors of a class, or null if the class is unknown
+     */
+    public List<String> getMethods(String className) {
+        return methodsByClass.get(className);
+    }
+
+    /**
+     * Get field descriptors of a class, or null if the class is unknown
+     */
+    public List<String> getFields(String className) {
+        return fieldsByClass.get(className);
+    }
+
+    /**
+     * Get all classes in decompiler order
+     */
+    public List<JavaClass> getClasses() {
+        return classes;
+    }
+
+    /**
+     * Get all full class names, sorted
+     */
+    public List<String> getSortedClassNames() {
+        return sortedClassNames;
+    }
+
+    /**
+     * Get the sorted full names of all classes whose name starts with a prefix, as a view
+     * of the sorted name list (no copy); an empty prefix returns all names
+     */
+    public List<String> getSortedClassNames(String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return sortedClassNames;
+        }
+        int from = lowerBound(prefix);
+        int to = from;
+        // Names sharing the prefix are contiguous; find the end of the run by binary search too
+        int high = sortedClassNames.size();
+        while (to < high) {
+            int mid = (to + high) >>> 1;
+            if (sortedClassNames.get(mid).startsWith(prefix)) {
+                to = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return sortedClassNames.subList(from, to);
+    }
+
+    /**
+     * Get class counts per package, sorted by package: {classes directly in the package,
+     * classes in the package and all its subpackages}. Ancestor packages without classes
+     * of their own are included with a direct count of 0.
+     */
+    public SortedMap<String, int[]> getPackageCounts() {
+        return packageCounts;
+    }
+
+    /**
+     * Get the name index over full class names
+     */
+    public NameIndex getClassNameIndex() {
+        return classNameIndex;
+    }
+
+    /**
+     * Get the name index over method names; entries are (class, method descriptor)
+     */
+    public NameIndex getMethodNameIndex() {
+        return methodNameIndex;
+    }
+
+    public int getClassCount() {
+        return classes.size();
+    }
+
+    public int getMethodCount() {
+        return methodCount;
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Approximate heap held by the registry's own tables (excludes JADX objects)
+     */
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    public long getBuildTimeMs() {
+        return buildTimeMs;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = sortedClassNames.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedClassNames.get(mid).compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static String parentPackage(String pkg) {
+        int dot = pkg.lastIndexOf('.');
+        return dot >= 0 ? pkg.substring(0, dot) : "";
+    }
+
+    private static long estimateString(String s) {
+        return STRING_OVERHEAD + (long) s.length() * 2;
+    }
+}
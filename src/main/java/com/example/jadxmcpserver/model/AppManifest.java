@@ -0,0 +1,101 @@
+package com.example.jadxmcpserver.model;
+
+import java.util.*;
+
+/**
+ * Parsed AndroidManifest.xml (immutable): package, SDK levels, permissions,
+ * every declared component, the launcher activity and deep links
+ */
+public final class AppManifest {
+    public final String packageName;
+    public final String versionCode;
+    public final String versionName;
+    public final String minSdkVersion;
+    public final String targetSdkVersion;
+    // Permissions the app requests
+    public final List<String> usesPermissions;
+    // Permissions the app defines, name -> protection level
+    public final Map<String, String> definedPermissions;
+    public final List<ManifestComponent> components;
+    public final String mainActivity;
+    public final List<String> deepLinks;
+
+    public AppManifest(String packageName, String versionCode, String versionName,
+                       String minSdkVersion, String targetSdkVersion,
+                       List<String> usesPermissions, Map<String, String> definedPermissions,
+                       List<ManifestComponent> components) {
+        this.packageName = packageName;
+        this.versionCode = versionCode;
+        this.versionName = versionName;
+        this.minSdkVersion = minSdkVersion;
+        this.targetSdkVersion = targetSdkVersion;
+        this.usesPermissions = Collections.unmodifiableList(new ArrayList<>(usesPermissions));
+        this.definedPermissions = Collections.unmodifiableMap(new LinkedHashMap<>(definedPermissions));
+        this.components = Collections.unmodifiableList(new ArrayList<>(components));
+        this.mainActivity = findMainActivity(this.components);
+        this.deepLinks = Collections.unmodifiableList(findDeepLinks(this.components));
+    }
+
+    public List<ManifestComponent> getExportedComponents() {
+        List<ManifestComponent> exported = new ArrayList<>();
+        for (ManifestComponent component : components) {
+            if (component.exported) {
+                exported.add(component);
+            }
+        }
+        return exported;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("packageName", packageName);
+        map.put("versionCode", versionCode);
+        map.put("versionName", versionName);
+        map.put("minSdkVersion", minSdkVersion);
+        map.put("targetSdkVersion", targetSdkVersion);
+        map.put("usesPermissions", usesPermissions);
+        map.put("definedPermissions", definedPermissions);
+        List<Map<String, Object>> componentMaps = new ArrayList<>();
+        for (ManifestComponent component : components) {
+            componentMaps.add(component.toMap());
+        }
+        map.put("components", componentMaps);
+        map.put("mainActivity", mainActivity);
+        map.put("deepLinks", deepLinks);
+        return map;
+    }
+
+    /**
+     * First activity (or alias, resolved to its target) with a MAIN/LAUNCHER intent filter
+     */
+    private static String findMainActivity(List<ManifestComponent> components) {
+        for (ManifestComponent component : components) {
+            if (!component.type.startsWith("activity")) {
+                continue;
+            }
+            for (IntentFilter filter : component.intentFilters) {
+                if (filter.isLauncher()) {
+                    return component.targetActivity != null ? component.targetActivity : component.name;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * URIs of browsable VIEW intent filters, as "uri -> component"
+     */
+    private static List<String> findDeepLinks(List<ManifestComponent> components) {
+        List<String> links = new ArrayList<>();
+        for (ManifestComponent component : components) {
+            for (IntentFilter filter : component.intentFilters) {
+                if (filter.isBrowsable()) {
+                    for (String uri : filter.getUris()) {
+                        links.add(uri + " -> " + component.name);
+                    }
+                }
+            }
+        }
+        return links;
+    }
+}
@@ -6,13 +6,19 @@ import java.util.Set;
 public class CallGraphNode {
     public String className;
     public String methodName;
+    public String descriptor;
     public String fullSignature;
     public Set<CallGraphNode> callers = new HashSet<>();
     
     public CallGraphNode(String className, String methodName) {
+        this(className, methodName, null);
+    }
+    
+    public CallGraphNode(String className, String methodName, String descriptor) {
         this.className = className;
         this.methodName = methodName;
-        this.fullSignature = className + "." + methodName;
+        this.descriptor = descriptor;
+        this.fullSignature = className + "." + methodName + (descriptor != null ? descriptor : "");
     }
     
     @Override
@@ -0,0 +1,29 @@
+package com.example.jadxmcpserver.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class CodeMatch {
+    public String className;
+    public int lineNumber;
+    public String line;
+
+    public CodeMatch(String className, int lineNumber, String line) {
+        this.className = className;
+        this.lineNumber = lineNumber;
+        this.line = line;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("className", className);
+        map.put("lineNumber", lineNumber);
+        map.put("line", line);
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return className + ":" + lineNumber + ": " + line;
+    }
+}
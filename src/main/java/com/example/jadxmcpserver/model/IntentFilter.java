@@ -0,0 +1,107 @@
+package com.example.jadxmcpserver.model;
+
+import java.util.*;
+
+/**
+ * An intent filter of a manifest component (immutable)
+ */
+public final class IntentFilter {
+    public final List<String> actions;
+    public final List<String> categories;
+    // Each data element as its non-empty attributes (scheme, host, port, path, pathPrefix, pathPattern, mimeType)
+    public final List<Map<String, String>> data;
+
+    public IntentFilter(List<String> actions, List<String> categories, List<Map<String, String>> data) {
+        this.actions = Collections.unmodifiableList(new ArrayList<>(actions));
+        this.categories = Collections.unmodifiableList(new ArrayList<>(categories));
+        List<Map<String, String>> copies = new ArrayList<>();
+        for (Map<String, String> element : data) {
+            copies.add(Collections.unmodifiableMap(new LinkedHashMap<>(element)));
+        }
+        this.data = Collections.unmodifiableList(copies);
+    }
+
+    public boolean isLauncher() {
+        return actions.contains("android.intent.action.MAIN") && categories.contains("android.intent.category.LAUNCHER");
+    }
+
+    public boolean isBrowsable() {
+        return actions.contains("android.intent.action.VIEW") && categories.contains("android.intent.category.BROWSABLE");
+    }
+
+    /**
+     * URIs this filter accepts: every scheme combined with every host and path,
+     * since Android merges the data elements of one filter
+     */
+    public List<String> getUris() {
+        List<String> schemes = new ArrayList<>();
+        List<String> authorities = new ArrayList<>();
+        List<String> paths = new ArrayList<>();
+        for (Map<String, String> element : data) {
+            addIfPresent(schemes, element.get("scheme"));
+            String host = element.get("host");
+            if (host != null) {
+                String port = element.get("port");
+                authorities.add(port != null ? host + ":" + port : host);
+            }
+            addIfPresent(paths, element.get("path"));
+            addIfPresent(paths, element.get("pathPrefix") != null ? element.get("pathPrefix") + "*" : null);
+            addIfPresent(paths, element.get("pathPattern"));
+        }
+
+        List<String> uris = new ArrayList<>();
+        for (String scheme : schemes) {
+            if (authorities.isEmpty()) {
+                uris.add(scheme + ":");
+                continue;
+            }
+            for (String authority : authorities) {
+                if (paths.isEmpty()) {
+                    uris.add(scheme + "://" + authority);
+                }
+                for (String path : paths) {
+                    uris.add(scheme + "://" + authority + (path.startsWith("/") ? "" : "/") + path);
+                }
+            }
+        }
+        return uris;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("actions", actions);
+        map.put("categories", categories);
+        map.put("data", data);
+        return map;
+    }
+
+    /**
+     * One-line summary, e.g. "Action: android.intent.action.VIEW, Data: scheme=https host=example.com"
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (String action : actions) {
+            if (sb.length() > 0) sb.append(", ");
+            sb.append("Action: ").append(action);
+        }
+        for (String category : categories) {
+            if (sb.length() > 0) sb.append(", ");
+            sb.append("Category: ").append(category);
+        }
+        for (Map<String, String> element : data) {
+            if (sb.length() > 0) sb.append(", ");
+            sb.append("Data:");
+            for (Map.Entry<String, String> attribute : element.entrySet()) {
+                sb.append(' ').append(attribute.getKey()).append('=').append(attribute.getValue());
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void addIfPresent(List<String> values, String value) {
+        if (value != null && !values.contains(value)) {
+            values.add(value);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.jadxmcpserver.model;
+
+import java.util.*;
+
+/**
+ * An activity, activity alias, service, receiver or provider declared in the manifest (immutable)
+ */
+public final class ManifestComponent {
+    public final String type;
+    public final String name;
+    public final boolean exported;
+    public final boolean enabled;
+    public final String permission;
+    // Activity an activity-alias points to, otherwise null
+    public final String targetActivity;
+    // Provider authorities, otherwise null
+    public final String authorities;
+    public final List<IntentFilter> intentFilters;
+
+    public ManifestComponent(String type, String name, boolean exported, boolean enabled, String permission,
+                             String targetActivity, String authorities, List<IntentFilter> intentFilters) {
+        this.type = type;
+        this.name = name;
+        this.exported = exported;
+        this.enabled = enabled;
+        this.permission = permission;
+        this.targetActivity = targetActivity;
+        this.authorities = authorities;
+        this.intentFilters = Collections.unmodifiableList(new ArrayList<>(intentFilters));
+    }
+
+    /**
+     * The legacy exported-component view of this component
+     */
+    public ExportedComponent toExportedComponent() {
+        ExportedComponent component = new ExportedComponent();
+        component.type = type;
+        component.name = name;
+        component.exported = exported;
+        component.permission = permission != null ? permission : "";
+        for (IntentFilter filter : intentFilters) {
+            String description = filter.toString();
+            if (!description.isEmpty()) {
+                component.intentFilters.add(description);
+            }
+        }
+        return component;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("type", type);
+        map.put("name", name);
+        map.put("exported", exported);
+        map.put("enabled", enabled);
+        map.put("permission", permission);
+        if (targetActivity != null) {
+            map.put("targetActivity", targetActivity);
+        }
+        if (authorities != null) {
+            map.put("authorities", authorities);
+        }
+        List<Map<String, Object>> filters = new ArrayList<>();
+        for (IntentFilter filter : intentFilters) {
+            filters.add(filter.toMap());
+        }
+        map.put("intentFilters", filters);
+        return map;
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.jadxmcpserver;
 
+import com.example.jadxmcpserver.core.Deadline;
+
+import java.io.ByteArrayOutputStream;
 import java.util.*;
 
 /**
@@ -26,6 +29,64 @@ public class ApiFunctionalityTest {
             List<String> classes = api.getAllClasses();
             System.out.println("Total classes: " + classes.size());
             
+            // Test class paging and the package tree
+            List<String> pagedClasses = new ArrayList<>();
+            String classCursor = null;
+            do {
+                Map<String, Object> page = api.listClasses(null, 50, classCursor);
+                pagedClasses.addAll(listOf(page, "results"));
+                classCursor = (String) page.get("nextCursor");
+            } while (classCursor != null);
+            if (!pagedClasses.equals(classes)) {
+                throw new RuntimeException("Paged class listing differs from the full listing");
+            }
+            try {
+                api.listClasses(null, 50, "-1");
+                throw new RuntimeException("Negative cursor was accepted");
+            } catch (Exception e) {
+                if (!e.getMessage().startsWith("Invalid cursor")) {
+                    throw e;
+                }
+            }
+            List<Map<String, Object>> packages = api.getPackageTree(null, 1);
+            int total = 0;
+            for (Map<String, Object> pkg : packages) {
+                total += (Integer) pkg.get("totalClasses");
+            }
+            if (total != classes.size()) {
+                throw new RuntimeException("Top-level packages count " + total + " classes, expected " + classes.size());
+            }
+            System.out.println("Class pages: " + pagedClasses.size() + " classes, top-level packages: " + packages);
+            
+            // Test the ordered parallel export of one package
+            List<String> exported = new ArrayList<>();
+            int exportedCount;
+            try (JadxApkAnalyzerAPI.ClassExport export = api.openExport("jakhar.aseem.diva", false)) {
+                exportedCount = export.writeTo(record -> {
+                    if (record.source == null) {
+                        throw new IllegalStateException("No source exported for " + record.className + ": " + record.error);
+                    }
+                    return exported.add(record.className);
+                });
+            }
+            if (exportedCount != exported.size() || !exported.equals(api.listClasses("jakhar.aseem.diva", 0, null).get("results"))) {
+                throw new RuntimeException("Export order or count differs from the class listing: " + exported);
+            }
+            System.out.println("Exported classes of jakhar.aseem.diva: " + exportedCount);
+            
+            // Test a size-capped batch: in order, per-class errors, the rest listed as omitted
+            List<String> batchNames = new ArrayList<>(exported);
+            batchNames.add(1, "non.existent.Class");
+            Map<String, Object> batch = api.getClassesBatch(batchNames, "source,methods", 4096);
+            List<Map<String, Object>> batchClasses = listOf(batch, "classes");
+            List<String> omitted = listOf(batch, "omitted");
+            if (batchClasses.size() + omitted.size() != batchNames.size() || !batchClasses.get(1).containsKey("error")
+                    || !batchClasses.get(0).get("className").equals(batchNames.get(0)) || (Long) batch.get("totalChars") > 4096) {
+                throw new RuntimeException("Unexpected batch result: " + batch.keySet() + " " + batchClasses.size() + "/" + omitted.size());
+            }
+            System.out.println("Batch of " + batchNames.size() + ": " + batchClasses.size() + " returned, "
+                + omitted.size() + " omitted, " + batch.get("totalChars") + " characters");
+            
             if (!classes.isEmpty()) {
                 String firstClass = classes.get(0);
                 System.out.println("Testing with first class: " + firstClass);
@@ -71,6 +132,75 @@ public class ApiFunctionalityTest {
             // Test search
             Map<String, List<String>> searchResults = api.searchMethod("onCreate");
             System.out.println("Classes with 'onCreate' methods: " + searchResults.size());
+            Map<String, Object> firstPage = api.searchMethod("get", "prefix", 10, null);
+            Map<String, Object> secondPage = api.searchMethod("get", "prefix", 10, (String) firstPage.get("nextCursor"));
+            System.out.println("Methods with prefix 'get': " + firstPage.get("totalMatches")
+                + " (page 2 returned " + secondPage.get("returned") + ")");
+            Map<String, Object> classResults = api.searchClass("activity", null, 5, null);
+            System.out.println("Classes matching 'activity': " + classResults.get("results"));
+            
+            // Test code search
+            Map<String, Object> codeResults = api.searchCode("getSharedPreferences", false, 20);
+            System.out.println("Code search 'getSharedPreferences': " + ((List<?>) codeResults.get("matches")).size()
+                + " lines in " + codeResults.get("candidateClasses") + " candidate classes");
+            Map<String, Object> regexResults = api.searchCode("loadUrl\\(.*\\)", true, 20);
+            System.out.println("Regex search 'loadUrl\\(.*\\)': " + ((List<?>) regexResults.get("matches")).size() + " lines");
+            
+            // Test deadlines: a backtracking regex stops on time with partial results, a cancelled batch omits everything
+            long searchStart = System.currentTimeMillis();
+            Map<String, Object> slowSearch = api.searchCode("(\\w|\\s)*(\\w|\\s)*(\\w|\\s)*;;", true, 20, Deadline.after(1000));
+            long searchMs = System.currentTimeMillis() - searchStart;
+            if (!Boolean.TRUE.equals(slowSearch.get("truncated")) || !"deadline".equals(slowSearch.get("stopReason")) || searchMs > 10_000) {
+                throw new RuntimeException("Search did not stop at its deadline after " + searchMs + " ms: " + slowSearch.keySet());
+            }
+            System.out.println("Backtracking regex stopped after " + searchMs + " ms with "
+                + ((List<?>) slowSearch.get("matches")).size() + " lines");
+            Deadline cancelledBatch = Deadline.none();
+            cancelledBatch.cancel();
+            Map<String, Object> stopped = api.getClassesBatch(List.of(api.getMainActivity()), "source", 0, cancelledBatch);
+            if (!"cancelled".equals(stopped.get("stopReason")) || ((List<?>) stopped.get("omitted")).size() != 1) {
+                throw new RuntimeException("Cancelled batch was not truncated: " + stopped);
+            }
+            
+            // Test background warm-up of the app package
+            // R is renamed by deobfuscation (C0303R), so its code is cached under its raw name
+            String renamedClass = "jakhar.aseem.diva.C0303R";
+            if (api.getClassSource(renamedClass) == null) {
+                throw new RuntimeException("Deobfuscated class not found: " + renamedClass);
+            }
+            api.startWarmup(List.of("jakhar.aseem.diva"));
+            api.getClassSource(api.getMainActivity());
+            api.getClassSource(renamedClass);
+            Object queueJumps = ((Map<?, ?>) api.getLoadStatus().get("warmup")).get("queueJumps");
+            if (!Integer.valueOf(0).equals(queueJumps)) {
+                throw new RuntimeException("Reading a cached class jumped the warm-up queue: " + queueJumps);
+            }
+            for (int i = 0; i < 600 && Boolean.TRUE.equals(((Map<?, ?>) api.getLoadStatus().get("warmup")).get("running")); i++) {
+                Thread.sleep(100);
+            }
+            System.out.println("Warm-up: " + api.getLoadStatus().get("warmup"));
+            
+            // Test line-aligned source chunks against the full source
+            String chunkedClass = api.getMainActivity();
+            String fullSource = api.getClassSource(chunkedClass);
+            StringBuilder chunked = new StringBuilder();
+            int chunks = 0;
+            Object nextLine = 1;
+            while (nextLine != null) {
+                Map<String, Object> chunk = api.readClassSource(chunkedClass, (Integer) nextLine, 0, 200);
+                chunked.append(chunk.get("content"));
+                nextLine = chunk.get("nextStartLine");
+                chunks++;
+            }
+            if (!chunked.toString().equals(fullSource)) {
+                throw new RuntimeException("Chunked source of " + chunkedClass + " differs from the full source");
+            }
+            Map<String, Object> range = api.readClassSource(chunkedClass, 2, 3, 0);
+            System.out.println("Source chunks of " + chunkedClass + ": " + chunks + ", lines 2-3: "
+                + range.get("startLine") + "-" + range.get("endLine") + " of " + range.get("totalLines"));
+            
+            // Test code cache counters
+            System.out.println("Code cache: " + api.getCacheStats());
             
             // Test exported components
             List<Map<String, Object>> components = api.getExportedComponents();
@@ -95,6 +225,60 @@ public class ApiFunctionalityTest {
                 System.out.println("Could not get main activity: " + e.getMessage());
             }
             
+            // Test resource paging: binary chunks reassemble to the streamed bytes
+            List<String> libraries = api.getResourceFileNames("lib/", "**/*.so");
+            if (!libraries.isEmpty()) {
+                String library = libraries.get(0);
+                ByteArrayOutputStream paged = new ByteArrayOutputStream();
+                long offset = 0;
+                while (true) {
+                    Map<String, Object> chunk = api.readResource(library, offset, 4096);
+                    paged.write(Base64.getDecoder().decode((String) chunk.get("content")));
+                    if (!(Boolean) chunk.get("hasMore")) {
+                        break;
+                    }
+                    offset = (Long) chunk.get("nextOffset");
+                }
+                byte[] streamed;
+                try (JadxApkAnalyzerAPI.ResourceStream stream = api.openResource(library)) {
+                    streamed = stream.getInputStream().readAllBytes();
+                }
+                if (!Arrays.equals(paged.toByteArray(), streamed)) {
+                    throw new RuntimeException("Paged and streamed bytes of " + library + " differ");
+                }
+                System.out.println("Resource " + library + ": " + streamed.length + " bytes paged and streamed");
+            }
+            
+            // Test session reuse: loading the same APK again must not decompile it twice
+            Map<String, Object> reload = api.loadApk(args[0]);
+            System.out.println("Reload reused session " + reload.get("session") + ": " + reload.get("reused"));
+            System.out.println("Sessions: " + api.listSessions().size());
+            
+            // Test background loads: a reload job reports its phases, a cancelled one leaves no session
+            Map<String, Object> job = api.startLoad(args[0], false, null, true, 300_000);
+            Map<String, Object> jobStatus = api.getLoadJob((String) job.get("job"));
+            if (!"done".equals(jobStatus.get("state")) || !reload.get("session").equals(job.get("session"))) {
+                throw new RuntimeException("Load job did not finish with the same session: " + jobStatus);
+            }
+            System.out.println("Load job " + job.get("job") + " phases: " + jobStatus.get("phases"));
+            int sessionsBefore = api.listSessions().size();
+            Map<String, Object> cancelled = api.cancelLoad(
+                (String) api.startLoad(args[0], false, null, true, 0).get("job"));
+            if ("running".equals(cancelled.get("state")) || api.listSessions().size() != sessionsBefore) {
+                throw new RuntimeException("Cancelled load did not stop cleanly: " + cancelled);
+            }
+            System.out.println("Cancelled load job ended " + cancelled.get("state"));
+            try {
+                api.getLoadJob("load-unknown");
+            } catch (Exception e) {
+                System.out.println("  ✅ Properly caught error for unknown load job: " + e.getMessage());
+            }
+            try {
+                api.session("unknown").getAllClasses();
+            } catch (Exception e) {
+                System.out.println("  ✅ Properly caught error for unknown session: " + e.getMessage());
+            }
+            
             // Test error handling
             System.out.println("Testing error handling...");
             try {
@@ -125,4 +309,9 @@ public class ApiFunctionalityTest {
         }
         return null;
     }
-}
\ No newline at end of file
+    
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> listOf(Map<String, Object> result, String key) {
+        return (List<T>) result.get(key);
+    }
+}
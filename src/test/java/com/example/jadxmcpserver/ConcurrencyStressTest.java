@@ -0,0 +1,200 @@
+package com.example.jadxmcpserver;
+
+import com.example.jadxmcpserver.core.JadxAnalyzerCore;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stress test for the REST read path: reader threads hit the controller endpoints
+ * while another thread repeatedly hot-reloads, closes and reloads the APK.
+ * The only acceptable failure is "no APK loaded" in the window between close and
+ * reload; a hot reload must not leave any such window.
+ */
+public class ConcurrencyStressTest {
+
+    private static final int READER_THREADS = 8;
+    private static final int RELOADS = 3;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            System.out.println("Usage: java ConcurrencyStressTest <apk_file>");
+            System.exit(1);
+        }
+
+        String apkPath = args[0];
+        JadxApkAnalyzerAPI api = new JadxApkAnalyzerAPI();
+        RequestWorkers workers = new RequestWorkers();
+        JadxRestController controller = new JadxRestController(api, workers);
+
+        // Without the disk cache readers really decompile, so closes land mid-request
+        String diskCache = System.getProperty(JadxAnalyzerCore.DISK_CACHE_ENABLED_PROPERTY);
+        System.setProperty(JadxAnalyzerCore.DISK_CACHE_ENABLED_PROPERTY, "false");
+        try {
+            System.out.println("Loading APK: " + apkPath);
+            ResponseEntity<?> loaded = controller.loadApk(Map.of("apkPath", apkPath));
+            if (!loaded.getStatusCode().is2xxSuccessful()) {
+                throw new RuntimeException("Load failed: " + loaded.getBody());
+            }
+
+            List<String> classes = classNames(controller.getAllClasses(null, 0, null, null));
+            System.out.println("Classes: " + classes.size());
+
+            // A repeated request with the returned ETag is answered 304 without a body
+            ResponseEntity<?> first = controller.getClassSource(classes.get(0), null, null, null, null, null);
+            String etag = first.getHeaders().getETag();
+            ResponseEntity<?> again = controller.getClassSource(classes.get(0), null, null, null, etag, null);
+            ResponseEntity<?> otherChunk = controller.getClassSource(classes.get(0), 1, null, null, etag, null);
+            if (etag == null || again.getStatusCode().value() != 304 || again.getBody() != null
+                    || otherChunk.getStatusCode().value() != 200) {
+                throw new RuntimeException("Conditional GET failed: " + etag + " -> " + again.getStatusCode()
+                    + ", other chunk -> " + otherChunk.getStatusCode());
+            }
+            System.out.println("ETag " + etag + ": 304 on revalidation");
+
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicInteger ok = new AtomicInteger();
+            AtomicInteger notLoaded = new AtomicInteger();
+            Queue<String> unexpected = new ConcurrentLinkedQueue<>();
+
+            ExecutorService readers = Executors.newFixedThreadPool(READER_THREADS);
+            for (int t = 0; t < READER_THREADS; t++) {
+                final int seed = t;
+                readers.execute(() -> {
+                    Random random = new Random(seed);
+                    while (running.get()) {
+                        String className = classes.get(random.nextInt(classes.size()));
+                        ResponseEntity<?> response;
+                        try {
+                            // Reader 0 runs code searches, which decompile every class and span reloads
+                            switch (seed == 0 ? 4 : random.nextInt(4)) {
+                                case 0:
+                                    response = controller.getClassSource(className, null, null, null, null, null);
+                                    break;
+                                case 1:
+                                    response = controller.getClassMethods(className, null);
+                                    break;
+                                case 2:
+                                    response = controller.getSmaliOfClass(className, null, null, null, null, null);
+                                    break;
+                                case 3:
+                                    response = random.nextBoolean()
+                                        ? controller.searchMethod("on", "prefix", 20, null, null)
+                                        : controller.getCacheStats(null);
+                                    break;
+                                default:
+                                    response = controller.searchCode("password", false, 10, 0, null);
+                                    break;
+                            }
+                        } catch (Throwable e) {
+                            unexpected.add(className + ": " + e);
+                            continue;
+                        }
+                        String body = bodyText(response);
+                        if (response.getStatusCode().is2xxSuccessful()) {
+                            ok.incrementAndGet();
+                        } else if (body.contains("No APK loaded")) {
+                            notLoaded.incrementAndGet();
+                            pause();
+                        } else {
+                            unexpected.add(className + ": " + body);
+                        }
+                    }
+                });
+            }
+
+            // Hot reloads (no gap allowed), then close and reload, while the readers are running
+            for (int i = 0; i < RELOADS; i++) {
+                Thread.sleep(500);
+                int gapBefore = notLoaded.get();
+                ResponseEntity<?> swapped = controller.loadApk(Map.of("apkPath", apkPath, "reload", "true"));
+                if (!swapped.getStatusCode().is2xxSuccessful() || notLoaded.get() != gapBefore) {
+                    unexpected.add("hot reload " + (i + 1) + " left no APK loaded: " + swapped.getBody());
+                }
+                System.out.println("Hot reload " + (i + 1) + ": " + swapped.getStatusCode());
+
+                Thread.sleep(500);
+                controller.closeAnalyzer(null);
+                ResponseEntity<?> reloaded = controller.loadApk(Map.of("apkPath", apkPath));
+                System.out.println("Reload " + (i + 1) + ": " + reloaded.getStatusCode());
+            }
+            Thread.sleep(500);
+            running.set(false);
+            readers.shutdown();
+            if (!readers.awaitTermination(5, TimeUnit.MINUTES)) {
+                throw new RuntimeException("Reader threads did not finish");
+            }
+
+            System.out.println("Successful requests: " + ok.get());
+            System.out.println("Requests between close and reload: " + notLoaded.get());
+            System.out.println("Sessions after reloads: " + controller.listSessions().getBody());
+            if (!unexpected.isEmpty()) {
+                System.out.println("❌ Unexpected failures: " + unexpected.size());
+                unexpected.stream().limit(5).forEach(failure -> System.out.println("  " + failure));
+                throw new RuntimeException(unexpected.size() + " requests failed during reloads");
+            }
+
+            // Long requests beyond the worker pool and its queue are turned away with 503
+            try (RequestWorkers single = new RequestWorkers(1, 1)) {
+                JadxRestController limited = new JadxRestController(api, single);
+                String slowRegex = "(\\w|\\s)*(\\w|\\s)*(\\w|\\s)*;;";
+                ResponseEntity<?> busy = limited.searchCode(slowRegex, true, 10, 3, null);
+                ResponseEntity<?> waiting = limited.searchCode(slowRegex, true, 10, 3, null);
+                ResponseEntity<?> turnedAway = limited.searchCode(slowRegex, true, 10, 3, null);
+                if (turnedAway.getStatusCode().value() != 503 || !busy.getStatusCode().is2xxSuccessful()
+                        || !waiting.getStatusCode().is2xxSuccessful()) {
+                    throw new RuntimeException("Expected 200, 200, 503 from a full worker pool: " + busy.getStatusCode()
+                        + ", " + waiting.getStatusCode() + ", " + turnedAway.getStatusCode() + " " + bodyText(turnedAway));
+                }
+                bodyText(busy);
+                bodyText(waiting);
+                System.out.println("Full request pool: " + bodyText(turnedAway).trim());
+            }
+            System.out.println("✅ Concurrency stress test completed successfully!");
+        } finally {
+            controller.closeAnalyzer(null);
+            workers.close();
+            if (diskCache != null) {
+                System.setProperty(JadxAnalyzerCore.DISK_CACHE_ENABLED_PROPERTY, diskCache);
+            } else {
+                System.clearProperty(JadxAnalyzerCore.DISK_CACHE_ENABLED_PROPERTY);
+            }
+        }
+    }
+
+    /**
+     * Response body as text, writing out streamed bodies
+     */
+    private static String bodyText(ResponseEntity<?> response) {
+        if (!(response.getBody() instanceof StreamingResponseBody)) {
+            return String.valueOf(response.getBody());
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ((StreamingResponseBody) response.getBody()).writeTo(out);
+        } catch (IOException e) {
+            return "Streaming failed: " + e.getMessage();
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> classNames(ResponseEntity<?> response) {
+        return (List<String>) ((Map<String, Object>) response.getBody()).get("classes");
+    }
+}
@@ -1,8 +1,20 @@
 package com.example.jadxmcpserver;
 
+import com.example.jadxmcpserver.core.CodeSearchIndex;
+import com.example.jadxmcpserver.core.Deadline;
+import com.example.jadxmcpserver.core.DiskCodeCache;
 import com.example.jadxmcpserver.core.JadxAnalyzerCore;
+import com.example.jadxmcpserver.core.ManifestParser;
+import com.example.jadxmcpserver.core.ResourceIndex;
+import com.example.jadxmcpserver.core.SessionRegistry;
+import com.example.jadxmcpserver.model.AppManifest;
 import com.example.jadxmcpserver.model.ExportedComponent;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * Test class for JadxAnalyzerCore functionality
@@ -51,6 +63,18 @@ public class CoreFunctionalityTest {
             String manifest = core.getAndroidManifest();
             if (manifest != null) {
                 System.out.println("Manifest loaded: " + manifest.length() + " characters");
+                AppManifest model = core.getManifest();
+                System.out.println("Manifest model: " + model.components.size() + " components, "
+                    + model.usesPermissions.size() + " permissions, " + model.deepLinks.size() + " deep links");
+                if (model.components.size() < components.size() || model.getExportedComponents().size() != components.size()) {
+                    throw new RuntimeException("Manifest model components do not cover the exported components");
+                }
+            }
+            // Decoder output sometimes uses android: without declaring the namespace
+            AppManifest undeclared = ManifestParser.parse("<manifest package=\"p\"><application>"
+                + "<activity android:name=\".Main\" android:exported=\"true\"/></application></manifest>");
+            if (undeclared.getExportedComponents().size() != 1 || !"p.Main".equals(undeclared.components.get(0).name)) {
+                throw new RuntimeException("Manifest with an undeclared android prefix misparsed: " + undeclared.toMap());
             }
             
             // Test main activity
@@ -81,10 +105,82 @@ public class CoreFunctionalityTest {
                 }
             }
             
+            // Test overload selection by descriptor
+            if (mainActivity != null) {
+                String onCreate = core.getMethodByName(mainActivity, "onCreate", "(Landroid/os/Bundle;)V");
+                System.out.println("onCreate(Bundle) extracted: " + (onCreate != null && onCreate.trim().endsWith("}")));
+                try {
+                    core.getMethodByName(mainActivity, "onCreate", "(I)");
+                } catch (RuntimeException e) {
+                    System.out.println("  ✅ Properly reported unknown overload: " + e.getMessage());
+                }
+            }
+            
             // Test search functionality
             Map<String, List<String>> searchResults = core.searchMethodByName("onCreate");
             System.out.println("Search results for 'onCreate': " + searchResults.size() + " classes");
             
+            // Test call graph generation
+            JadxAnalyzerCore.CallGraphResult callGraph = core.generateCallGraphForMethod("WebView.loadUrl");
+            if (callGraph.success) {
+                System.out.println("Call graph for 'WebView.loadUrl': " + callGraph.targetNodes.size()
+                    + " target(s), " + callGraph.entryPoints.size() + " entry point(s)");
+            } else {
+                System.out.println("Call graph for 'WebView.loadUrl': " + callGraph.message);
+            }
+            Deadline cancelled = Deadline.none();
+            cancelled.cancel();
+            JadxAnalyzerCore.CallGraphResult stopped = core.generateCallGraphForMethod("WebView.loadUrl", cancelled);
+            if (stopped.success && !(stopped.truncated && "cancelled".equals(stopped.stopReason))) {
+                throw new RuntimeException("Cancelled call graph was not truncated: " + stopped.message);
+            }
+            System.out.println("Cancelled call graph: " + stopped.message);
+            // A deadline only watches for interrupts of its owner thread, and an ownerless one for none
+            Thread.currentThread().interrupt();
+            boolean ownedExpired = Deadline.after(60_000).isExpired();
+            boolean ownerlessExpired = Deadline.after(60_000, null).isExpired();
+            Thread.interrupted();
+            if (!ownedExpired || ownerlessExpired) {
+                throw new RuntimeException("Deadline owner interrupt: owned expired=" + ownedExpired
+                    + ", ownerless expired=" + ownerlessExpired);
+            }
+            JadxAnalyzerCore.CallGraphResult misspelled = core.generateCallGraphForMethod("WebView.loadUrll");
+            System.out.println("Suggestions for 'loadUrll': " + misspelled.suggestions);
+            System.out.println("Suggestions for 'MainActivty': " + core.suggestSymbols("MainActivty", "class", 3));
+
+            // Test the search prefilter: escapes and inline flags must not become literals
+            Map<String, List<String>> expectedLiterals = new LinkedHashMap<>();
+            expectedLiterals.put("loadUrl\\(", List.of("loadUrl("));
+            expectedLiterals.put("\\x41BCD", List.of("BCD"));
+            expectedLiterals.put("\\x{41}BCD", List.of("BCD"));
+            expectedLiterals.put("\\u0041BCD", List.of("BCD"));
+            expectedLiterals.put("\\0101BCD", List.of("BCD"));
+            expectedLiterals.put("(?<n>a)\\k<n>BCD", List.of("BCD"));
+            expectedLiterals.put("\\p{Lu}BCD\\pLxyz", List.of("BCD", "xyz"));
+            expectedLiterals.put("\\Qa.b(c\\E?", List.of("a.b("));
+            expectedLiterals.put("[a[bc]]xyzw", List.of("xyzw"));
+            expectedLiterals.put("[a&&[^b]]xyzw", List.of("xyzw"));
+            expectedLiterals.put("[]a]xyzw", List.of("xyzw"));
+            expectedLiterals.put("(?x) load Url", List.of());
+            expectedLiterals.put("(?ix: load Url)", List.of());
+            for (Map.Entry<String, List<String>> entry : expectedLiterals.entrySet()) {
+                List<String> literals = CodeSearchIndex.getRequiredLiterals(entry.getKey(), true);
+                if (!literals.equals(entry.getValue())) {
+                    throw new RuntimeException("Required literals of " + entry.getKey() + ": " + literals);
+                }
+            }
+            JadxAnalyzerCore.CodeSearchResult plainSearch = core.searchCode("loadUrl", false, 5);
+            JadxAnalyzerCore.CodeSearchResult commentsSearch = core.searchCode("(?x) load Url  # spaced out", true, 5);
+            if (commentsSearch.matches.size() != plainSearch.matches.size()) {
+                throw new RuntimeException("Comments mode search found " + commentsSearch.matches.size()
+                    + " matches, plain search " + plainSearch.matches.size());
+            }
+            System.out.println("Search prefilter literals verified; '(?x) load Url' matches: " + commentsSearch.matches.size());
+
+            testDiskCache();
+            testSessionCodeCacheBudget(args[0]);
+            testOversizedResourcePaging(args[0]);
+
             System.out.println("✅ Core testing completed successfully!");
             
         } catch (Exception e) {
@@ -95,6 +191,219 @@ public class CoreFunctionalityTest {
         }
     }
     
+    /**
+     * Test the disk code cache in a temporary directory
+     */
+    private static void testDiskCache() throws Exception {
+        Path directory = Files.createTempDirectory("jadx-disk-cache-test");
+        String apkSha256 = DiskCodeCache.sha256("test.apk");
+        try {
+            // Interrupted writers must not close the segment for everyone else
+            try (DiskCodeCache cache = DiskCodeCache.open(directory, apkSha256, "settings")) {
+                cache.put(DiskCodeCache.Kind.CODE, "A", "class A {}");
+                Thread.currentThread().interrupt();
+                cache.put(DiskCodeCache.Kind.CODE, "B", "class B {}");
+                if (!Thread.interrupted()) {
+                    throw new RuntimeException("Disk cache put swallowed the caller's interrupt");
+                }
+                Thread writer = new Thread(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        cache.put(DiskCodeCache.Kind.CODE, "W" + i, "class W" + i + " {}");
+                    }
+                });
+                writer.start();
+                while (writer.isAlive()) {
+                    writer.interrupt();
+                    Thread.sleep(1);
+                }
+                cache.put(DiskCodeCache.Kind.CODE, "C", "class C {}");
+                for (String name : List.of("A", "B", "C", "W0", "W199")) {
+                    if (cache.get(DiskCodeCache.Kind.CODE, name) == null) {
+                        throw new RuntimeException("Disk cache lost " + name + " after interrupted writes: " + cache.getStats());
+                    }
+                }
+                Map<String, Object> stats = cache.getStats();
+                if (!Boolean.TRUE.equals(stats.get("available")) || !Long.valueOf(203).equals(stats.get("writes"))) {
+                    throw new RuntimeException("Disk cache degraded by interrupted writes: " + stats);
+                }
+                System.out.println("Disk cache survived interrupted writers: " + stats.get("writes") + " writes");
+            }
+
+            // Reopening serves the entries written before
+            try (DiskCodeCache cache = DiskCodeCache.open(directory, apkSha256, "reopen")) {
+                cache.put(DiskCodeCache.Kind.CODE, "A", "class A {}");
+                cache.put(DiskCodeCache.Kind.SMALI, "A", ".class LA;");
+            }
+            try (DiskCodeCache cache = DiskCodeCache.open(directory, apkSha256, "reopen")) {
+                if (!"class A {}".equals(cache.get(DiskCodeCache.Kind.CODE, "A"))
+                        || !".class LA;".equals(cache.get(DiskCodeCache.Kind.SMALI, "A"))
+                        || !Long.valueOf(2).equals(cache.getStats().get("hits"))) {
+                    throw new RuntimeException("Reopened disk cache missed its entries: " + cache.getStats());
+                }
+            }
+            System.out.println("Disk cache reopen: entries served without re-decompiling");
+
+            // A record whose data no longer matches its CRC is dropped, not served
+            Path crcSegment = segmentFile(directory, apkSha256, "crc");
+            try (DiskCodeCache cache = DiskCodeCache.open(directory, apkSha256, "crc")) {
+                cache.put(DiskCodeCache.Kind.CODE, "A", "class A {}");
+                cache.put(DiskCodeCache.Kind.CODE, "B", "class B {}");
+            }
+            byte[] segment = Files.readAllBytes(crcSegment);
+            int corrupt = indexOf(segment, "class A".getBytes(StandardCharsets.UTF_8));
+            segment[corrupt] = 'C';
+            Files.write(crcSegment, segment);
+            try (DiskCodeCache cache = DiskCodeCache.open(directory, apkSha256, "crc")) {
+                if (cache.get(DiskCodeCache.Kind.CODE, "A") != null || cache.contains(DiskCodeCache.Kind.CODE, "A")
+                        || cache.get(DiskCodeCache.Kind.CODE, "B") == null) {
+                    throw new RuntimeException("Disk cache served a record with a CRC mismatch: " + cache.getStats());
+                }
+            }
+            System.out.println("Disk cache CRC mismatch: corrupted record dropped");
+
+            // A torn record at the end is truncated by the next writer
+            Path tornSegment = segmentFile(directory, apkSha256, "torn");
+            try (DiskCodeCache cache = DiskCodeCache.open(directory, apkSha256, "torn")) {
+                cache.put(DiskCodeCache.Kind.CODE, "A", "class A {}");
+            }
+            long intactBytes = Files.size(tornSegment);
+            // The first record cut off a few bytes into its data
+            byte[] torn = Arrays.copyOfRange(Files.readAllBytes(tornSegment), 8, 8 + 16 + 1 + 3);
+            Files.write(tornSegment, torn, StandardOpenOption.APPEND);
+            try (DiskCodeCache cache = DiskCodeCache.open(directory, apkSha256, "torn")) {
+                if (Files.size(tornSegment) != intactBytes || cache.get(DiskCodeCache.Kind.CODE, "A") == null) {
+                    throw new RuntimeException("Torn disk cache tail was not truncated: " + Files.size(tornSegment)
+                        + " bytes, expected " + intactBytes);
+                }
+                cache.put(DiskCodeCache.Kind.CODE, "B", "class B {}");
+            }
+            try (DiskCodeCache cache = DiskCodeCache.open(directory, apkSha256, "torn")) {
+                if (cache.get(DiskCodeCache.Kind.CODE, "B") == null) {
+                    throw new RuntimeException("Disk cache lost the record appended after truncation");
+                }
+            }
+            System.out.println("Disk cache torn tail: truncated to " + intactBytes + " bytes");
+
+            // A second cache on a locked segment is read-only until the writer goes away
+            DiskCodeCache writer = DiskCodeCache.open(directory, apkSha256, "takeover");
+            try (DiskCodeCache reader = DiskCodeCache.open(directory, apkSha256, "takeover")) {
+                writer.put(DiskCodeCache.Kind.CODE, "A", "class A {}");
+                if (!Boolean.TRUE.equals(reader.getStats().get("readOnly"))) {
+                    throw new RuntimeException("Second disk cache on a locked segment is not read-only");
+                }
+                writer.close();
+                reader.put(DiskCodeCache.Kind.CODE, "B", "class B {}");
+                if (!Boolean.FALSE.equals(reader.getStats().get("readOnly"))
+                        || reader.get(DiskCodeCache.Kind.CODE, "A") == null
+                        || reader.get(DiskCodeCache.Kind.CODE, "B") == null) {
+                    throw new RuntimeException("Read-only disk cache did not take over the lock: " + reader.getStats());
+                }
+            } finally {
+                writer.close();
+            }
+            System.out.println("Disk cache lock takeover: read-only cache became the writer");
+        } finally {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+    
+    /**
+     * Test that paging through a resource too large for the resource cache decodes it only once
+     */
+    private static void testOversizedResourcePaging(String apkFile) {
+        System.setProperty(ResourceIndex.RESOURCE_CACHE_MB_PROPERTY, "0");
+        JadxAnalyzerCore uncached = new JadxAnalyzerCore(apkFile);
+        try {
+            if (!uncached.loadApk()) {
+                throw new RuntimeException("Failed to load APK without a resource cache");
+            }
+            int chunks = 0;
+            Object offset = 0L;
+            while (offset != null && chunks < 3) {
+                Map<String, Object> chunk = uncached.readResource("resources.arsc", (Long) offset, 4096);
+                offset = chunk.get("nextOffset");
+                chunks++;
+            }
+            Map<?, ?> stats = (Map<?, ?>) uncached.getCodeCacheStats().get("resources");
+            if (!Long.valueOf(1).equals(stats.get("misses"))) {
+                throw new RuntimeException("Oversized resource decoded again for each chunk: " + stats);
+            }
+            System.out.println("Oversized resource paged in " + chunks + " chunks with one decode");
+        } finally {
+            System.clearProperty(ResourceIndex.RESOURCE_CACHE_MB_PROPERTY);
+            uncached.close();
+        }
+    }
+    
+    /**
+     * Test that the code caches of loaded sessions split one budget
+     */
+    private static void testSessionCodeCacheBudget(String apkFile) throws Exception {
+        Path directory = Files.createTempDirectory("jadx-sessions-test");
+        SessionRegistry registry = new SessionRegistry(Long.MAX_VALUE / 4);
+        try {
+            // Same app, different bytes: a zip comment makes three distinct sessions
+            List<SessionRegistry.Session> sessions = new ArrayList<>();
+            for (String comment : List.of("a", "b", "c")) {
+                Path apk = copyWithZipComment(Path.of(apkFile), directory.resolve(comment + ".apk"), comment);
+                sessions.add(registry.open(apk.toString()).session);
+            }
+            long budget = JadxAnalyzerCore.getDefaultCodeCacheBudget();
+            checkCodeCacheBudgets(sessions, budget / 3);
+            registry.close(sessions.remove(2).id);
+            checkCodeCacheBudgets(sessions, budget / 2);
+            System.out.println("Session code caches share " + budget + " bytes");
+        } finally {
+            registry.closeAll();
+            try (Stream<Path> paths = Files.walk(directory)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+    
+    private static void checkCodeCacheBudgets(List<SessionRegistry.Session> sessions, long expected) {
+        for (SessionRegistry.Session session : sessions) {
+            Object maxBytes = session.core.getApkInfo().get("codeCacheMaxBytes");
+            if (!Long.valueOf(expected).equals(maxBytes)) {
+                throw new RuntimeException("Code cache of session " + session.id + " has " + maxBytes
+                    + " bytes, expected " + expected);
+            }
+        }
+    }
+    
+    /**
+     * Copy a zip file, setting the comment of its end of central directory record
+     */
+    private static Path copyWithZipComment(Path zip, Path target, String comment) throws Exception {
+        byte[] data = Files.readAllBytes(zip);
+        int end = data.length - 22;
+        while (end >= 0 && !(data[end] == 'P' && data[end + 1] == 'K' && data[end + 2] == 5 && data[end + 3] == 6)) {
+            end--;
+        }
+        byte[] text = comment.getBytes(StandardCharsets.UTF_8);
+        byte[] copy = Arrays.copyOf(data, end + 22 + text.length);
+        copy[end + 20] = (byte) text.length;
+        copy[end + 21] = 0;
+        System.arraycopy(text, 0, copy, end + 22, text.length);
+        Files.write(target, copy);
+        return target;
+    }
+    
+    private static Path segmentFile(Path directory, String apkSha256, String settings) {
+        return directory.resolve(DiskCodeCache.cacheKey(apkSha256, settings)).resolve("code.seg");
+    }
+    
+    private static int indexOf(byte[] data, byte[] pattern) {
+        for (int i = 0; i + pattern.length <= data.length; i++) {
+            if (Arrays.equals(Arrays.copyOfRange(data, i, i + pattern.length), pattern)) {
+                return i;
+            }
+        }
+        throw new RuntimeException("Pattern not found in segment");
+    }
+    
     private static String extractMethodName(String fullMethodName) {
         // Extract method name from full signature like "com.example.Class.methodName()"
         int lastDot = fullMethodName.lastIndexOf('.');
@@ -16,6 +16,7 @@ public class TestSuite {
             System.out.println("  api         - Test API functionality");
             System.out.println("  cli         - Test CLI interface (interactive)");
             System.out.println("  compat      - Test backward compatibility");
+            System.out.println("  concurrency - Stress REST endpoints during reloads");
             System.out.println("  all         - Run all non-interactive tests");
             System.out.println("  interactive - Run all tests including CLI");
             System.exit(1);
@@ -51,6 +52,9 @@ public class TestSuite {
             case "compat":
                 success = runCompatibilityTest(apkFile);
                 break;
+            case "concurrency":
+                success = runConcurrencyTest(apkFile);
+                break;
             case "all":
                 success = runAllTests(apkFile, false);
                 break;
@@ -121,6 +125,18 @@ public class TestSuite {
         }
     }
     
+    private static boolean runConcurrencyTest(String apkFile) {
+        System.out.println("🧵 Testing Concurrent Access...");
+        System.out.println("-" .repeat(30));
+        try {
+            ConcurrencyStressTest.main(new String[]{apkFile});
+            return true;
+        } catch (Exception e) {
+            System.err.println("❌ Concurrency test failed: " + e.getMessage());
+            return false;
+        }
+    }
+    
     private static boolean runAllTests(String apkFile, boolean includeInteractive) {
         boolean success = true;
         
@@ -133,6 +149,9 @@ public class TestSuite {
         success &= runCompatibilityTest(apkFile);
         System.out.println();
         
+        success &= runConcurrencyTest(apkFile);
+        System.out.println();
+        
         if (includeInteractive) {
             System.out.println("Press Enter to continue with CLI test, or Ctrl+C to skip...");
             try {